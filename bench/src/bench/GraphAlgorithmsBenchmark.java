@@ -0,0 +1,123 @@
+package bench;
+
+import data.GraphGenerator;
+import data.GraphLoader;
+import graph.CSRGraph;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.KBestPaths;
+import graph.dagsp.LevelParallelPaths;
+import graph.scc.CondensationGraph;
+import graph.scc.ParallelSCC;
+import graph.scc.SCCAlgorithm;
+import graph.scc.TarjanSCC;
+import graph.sched.CriticalPathMethod;
+import graph.sched.ListScheduler;
+import graph.topo.KahnTopo;
+import graph.topo.ParallelKahnTopo;
+import org.openjdk.jmh.annotations.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GraphAlgorithmsBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int nodes;
+
+    @Param({"2", "8"})
+    public int avgDegree;
+
+    @Param({"SPARSE_DAG", "DENSE_DAG", "SCC_CLUSTERS", "CHAIN", "POWER_LAW"})
+    public GraphGenerator.Shape shape;
+
+    private CSRGraph graph;
+    private SCCAlgorithm scc;
+    private CSRGraph condensation;
+    private List<Integer> topo;
+    private ParallelKahnTopo.LevelOrder levels;
+    private CSRGraph reverseCondensation;
+    private int sourceComponent;
+    private long[] durations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        GraphGenerator.ArraySink sink = new GraphGenerator.ArraySink();
+        new GraphGenerator(42L).generate(shape, nodes, avgDegree, sink);
+        GraphLoader.GraphData data = sink.toGraphData();
+        graph = CSRGraph.fromArrays(data.n, data.edgeCount, data.from, data.to, data.weights);
+        scc = new TarjanSCC(graph);
+        condensation = new CondensationGraph(graph, scc).getCondensation();
+        topo = KahnTopo.topologicalSort(condensation);
+        levels = ParallelKahnTopo.topologicalSort(condensation);
+        reverseCondensation = condensation.reverse();
+        sourceComponent = topo.get(0);
+        durations = ListScheduler.componentDurations(scc);
+    }
+
+    @Benchmark
+    public SCCAlgorithm tarjanSCC() {
+        return new TarjanSCC(graph);
+    }
+
+    @Benchmark
+    public SCCAlgorithm parallelSCC() {
+        return new ParallelSCC(graph);
+    }
+
+    @Benchmark
+    public CSRGraph condensationGraph() {
+        return new CondensationGraph(graph, scc).getCondensation();
+    }
+
+    @Benchmark
+    public List<Integer> kahnTopo() {
+        return KahnTopo.topologicalSort(condensation);
+    }
+
+    @Benchmark
+    public ParallelKahnTopo.LevelOrder parallelKahnTopo() {
+        return ParallelKahnTopo.topologicalSort(condensation);
+    }
+
+    @Benchmark
+    public int[] dagShortestPath() {
+        return DAGShortestPath.shortestPath(sourceComponent, condensation, topo);
+    }
+
+    @Benchmark
+    public int[] dagLongestPath() {
+        return DAGLongestPath.longestPath(sourceComponent, condensation, topo);
+    }
+
+    @Benchmark
+    public int[] levelParallelShortestPath() {
+        return LevelParallelPaths.shortestPath(sourceComponent, reverseCondensation, levels, null, ForkJoinPool.commonPool(), null);
+    }
+
+    @Benchmark
+    public int[] levelParallelLongestPath() {
+        return LevelParallelPaths.longestPath(sourceComponent, reverseCondensation, levels, null, ForkJoinPool.commonPool(), null);
+    }
+
+    @Benchmark
+    public CriticalPathMethod.Analysis criticalPathMethod() {
+        return CriticalPathMethod.analyze(condensation, topo, durations, null);
+    }
+
+    @Benchmark
+    public CriticalPathMethod.Analysis levelParallelCriticalPathMethod() {
+        return CriticalPathMethod.analyze(condensation, reverseCondensation, levels, durations, ForkJoinPool.commonPool(), null);
+    }
+
+    @Benchmark
+    public KBestPaths.Result kLongestPaths() {
+        return KBestPaths.longest(sourceComponent, KBestPaths.ANY_SINK, condensation, topo, 1000, null);
+    }
+}
@@ -0,0 +1,55 @@
+package bench;
+
+import data.BinaryGraphFile;
+import data.GraphGenerator;
+import data.GraphLoader;
+import data.MappedCSRGraph;
+import org.openjdk.jmh.annotations.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GraphLoaderBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int nodes;
+
+    @Param({"2", "8"})
+    public int avgDegree;
+
+    @Param({"SPARSE_DAG", "SCC_CLUSTERS", "POWER_LAW"})
+    public GraphGenerator.Shape shape;
+
+    private Path jsonFile;
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        jsonFile = Files.createTempFile("bench-graph", ".json");
+        try (GraphGenerator.JsonSink sink = new GraphGenerator.JsonSink(jsonFile)) {
+            new GraphGenerator(42L).generate(shape, nodes, avgDegree, sink);
+        }
+        binaryFile = BinaryGraphFile.convert(jsonFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jsonFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public GraphLoader.GraphData loadJson() throws IOException {
+        return GraphLoader.loadGraph(jsonFile.toString());
+    }
+
+    @Benchmark
+    public MappedCSRGraph openBinary() throws IOException {
+        return BinaryGraphFile.open(binaryFile);
+    }
+}
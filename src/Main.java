@@ -1,18 +1,36 @@
-import graph.scc.TarjanSCC;
+import graph.CSRGraph;
+import graph.scc.SCCAlgorithm;
 import graph.scc.CondensationGraph;
 import graph.topo.KahnTopo;
 import graph.dagsp.DAGShortestPath;
 import graph.dagsp.DAGLongestPath;
+import graph.dagsp.LongDistances;
+import graph.sched.ListScheduler;
 import data.GraphLoader;
 import metrics.AlgorithmMetrics;
 
 import java.util.*;
 import java.io.*;
 import java.nio.file.*;
+import java.util.concurrent.*;
 
 public class Main {
     public static void main(String[] args) {
-        List<DatasetResult> allResults = new ArrayList<>();
+        int workers = Runtime.getRuntime().availableProcessors();
+        boolean virtualThreads = false;
+        int scheduleWorkers = 0;
+        boolean parallelScc = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Math.max(1, Integer.parseInt(args[++i]));
+            } else if (args[i].equals("--virtual-threads")) {
+                virtualThreads = true;
+            } else if (args[i].equals("--schedule") && i + 1 < args.length) {
+                scheduleWorkers = Math.max(1, Integer.parseInt(args[++i]));
+            } else if (args[i].equals("--parallel-scc")) {
+                parallelScc = true;
+            }
+        }
         
         try {
             File dataDir = new File("data");
@@ -26,22 +44,14 @@ public class Main {
                 System.out.println("No JSON datasets found in data directory");
                 return;
             }
+            Arrays.sort(jsonFiles, Comparator.comparing(File::getName));
             
             System.out.println("Processing " + jsonFiles.length + " datasets...");
             
-            for (File file : jsonFiles) {
-                try {
-                    String filePath = file.getPath();
-                    GraphLoader.GraphData graphData = GraphLoader.loadGraph(filePath);
-                    DatasetResult result = processGraph(graphData, file.getName());
-                    allResults.add(result);
-                    System.out.println("Processed: " + file.getName());
-                } catch (Exception e) {
-                    System.err.println("Error processing " + file.getName() + ": " + e.getMessage());
-                }
+            try (ResultWriter writer = new ResultWriter(Paths.get("output.json"))) {
+                runPipeline(jsonFiles, workers, virtualThreads, scheduleWorkers, parallelScc, writer);
+                writer.commit();
             }
-            
-            writeResultsToFile(allResults, "output.json");
             System.out.println("\nAll results written to output.json");
             
         } catch (Exception e) {
@@ -50,75 +60,165 @@ public class Main {
         }
     }
 
-    private static DatasetResult processGraph(GraphLoader.GraphData graphData, String datasetName) {
-        List<List<Integer>> adj = buildAdjacencyList(graphData.n, graphData.edges);
-        List<List<int[]>> weightedAdj = buildWeightedAdjacencyList(graphData.n, graphData.edges);
+    private static void runPipeline(File[] files, int workers, boolean virtualThreads, int scheduleWorkers, boolean parallelScc, ResultWriter writer) throws IOException, InterruptedException {
+        ThreadFactory threads = virtualThreads
+            ? Thread.ofVirtual().name("dataset-", 0).factory()
+            : Thread.ofPlatform().name("dataset-", 0).factory();
+        BlockingQueue<Job> loaded = new ArrayBlockingQueue<>(workers);
+        BlockingQueue<Job> computed = new ArrayBlockingQueue<>(workers);
+        Semaphore inFlight = new Semaphore(2 * workers);
+        int total = files.length;
+
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(threads);
+        try {
+            executor.submit(() -> {
+                for (int i = 0; i < total; i++) {
+                    inFlight.acquire();
+                    Job job = new Job(i, files[i].getName());
+                    try {
+                        job.data = GraphLoader.loadGraph(files[i].getPath());
+                    } catch (Throwable t) {
+                        job.error = t;
+                    }
+                    loaded.put(job);
+                }
+                for (int w = 0; w < workers; w++) loaded.put(Job.END);
+                return null;
+            });
+
+            for (int w = 0; w < workers; w++) {
+                executor.submit(() -> {
+                    for (Job job = loaded.take(); job != Job.END; job = loaded.take()) {
+                        if (job.error == null) {
+                            try {
+                                job.result = processGraph(job.data, job.name, scheduleWorkers, parallelScc);
+                            } catch (Throwable t) {
+                                job.error = t;
+                            }
+                        }
+                        job.data = null;
+                        computed.put(job);
+                    }
+                    return null;
+                });
+            }
+
+            Job[] pending = new Job[total];
+            int next = 0;
+            for (int received = 0; received < total; received++) {
+                Job job = computed.take();
+                pending[job.index] = job;
+                while (next < total && pending[next] != null) {
+                    Job ready = pending[next];
+                    pending[next++] = null;
+                    inFlight.release();
+                    if (ready.error != null) {
+                        System.err.println("Error processing " + ready.name + ": " + ready.error.getMessage());
+                    } else {
+                        writer.write(ready.result);
+                        System.out.println("Processed: " + ready.name);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DatasetResult processGraph(GraphLoader.GraphData graphData, String datasetName, int scheduleWorkers, boolean parallelScc) {
+        CSRGraph graph = graphData.hasLongWeights()
+            ? CSRGraph.fromArrays(graphData.n, graphData.edgeCount, graphData.from, graphData.to, graphData.longWeights)
+            : CSRGraph.fromArrays(graphData.n, graphData.edgeCount, graphData.from, graphData.to, graphData.weights);
 
         AlgorithmMetrics sccMetrics = new AlgorithmMetrics();
         sccMetrics.start();
-        TarjanSCC scc = new TarjanSCC(adj, sccMetrics);
+        SCCAlgorithm scc = SCCAlgorithm.forGraph(graph, parallelScc, sccMetrics);
         sccMetrics.stop();
 
         List<List<Integer>> components = scc.getComponents();
         
-        CondensationGraph condensation = new CondensationGraph(adj, components);
-        List<List<Integer>> condensationAdj = condensation.getCondensationAdj();
+        CondensationGraph condensation = new CondensationGraph(graph, scc);
+        CSRGraph condensationGraph = condensation.getCondensation();
 
         AlgorithmMetrics topoMetrics = new AlgorithmMetrics();
         topoMetrics.start();
-        List<Integer> condensationTopo = KahnTopo.topologicalSort(condensationAdj, topoMetrics);
+        List<Integer> condensationTopo = KahnTopo.topologicalSort(condensationGraph, topoMetrics);
         topoMetrics.stop();
 
         List<Integer> taskOrder = condensation.getComponentOrder(condensationTopo);
-        List<List<int[]>> weightedCondensation = condensation.buildWeightedCondensation(weightedAdj);
-        int sourceComponent = condensation.getNodeToComponent().get(graphData.source);
+        int sourceComponent = condensation.getComponent(graphData.source);
         
-        AlgorithmMetrics shortestMetrics = new AlgorithmMetrics();
-        shortestMetrics.start();
-        int[] shortestDist = DAGShortestPath.shortestPath(sourceComponent, weightedCondensation, condensationTopo, shortestMetrics);
-        shortestMetrics.stop();
+        Map<Integer, Long> shortestDistances = new HashMap<>();
+        Map<Integer, Long> longestDistances = new HashMap<>();
+        List<Integer> criticalPath = null;
+        Long criticalPathLength = null;
 
+        AlgorithmMetrics shortestMetrics = new AlgorithmMetrics();
         AlgorithmMetrics longestMetrics = new AlgorithmMetrics();
-        longestMetrics.start();
-        int[] longestDist = DAGLongestPath.longestPath(sourceComponent, weightedCondensation, condensationTopo, longestMetrics);
-        DAGLongestPath.CriticalPathResult criticalPath = DAGLongestPath.findCriticalPath(sourceComponent, weightedCondensation, condensationTopo, longestMetrics);
-        longestMetrics.stop();
+        if (graphData.intPathSumsFit()) {
+            shortestMetrics.start();
+            int[] shortestDist = DAGShortestPath.shortestPath(sourceComponent, condensationGraph, condensationTopo, shortestMetrics);
+            shortestMetrics.stop();
 
-        Map<String, Integer> sccCounters = sccMetrics.getCounters();
-        Map<String, Integer> topoCounters = topoMetrics.getCounters();
-        Map<String, Integer> shortestCounters = shortestMetrics.getCounters();
-        Map<String, Integer> longestCounters = longestMetrics.getCounters();
+            longestMetrics.start();
+            DAGLongestPath.LongestPathResult longest = DAGLongestPath.analyze(sourceComponent, condensationGraph, condensationTopo, longestMetrics);
+            longestMetrics.stop();
 
-        List<ComponentInfo> componentInfos = new ArrayList<>();
-        for (int i = 0; i < components.size(); i++) {
-            componentInfos.add(new ComponentInfo(i, components.get(i)));
-        }
+            for (int i = 0; i < shortestDist.length; i++) {
+                if (shortestDist[i] != Integer.MAX_VALUE) shortestDistances.put(i, (long) shortestDist[i]);
+            }
+            for (int i = 0; i < longest.dist.length; i++) {
+                if (longest.isReachable(i)) longestDistances.put(i, (long) longest.dist[i]);
+            }
+            DAGLongestPath.CriticalPathResult result = longest.toCriticalPathResult();
+            if (result != null) {
+                criticalPath = result.path;
+                criticalPathLength = (long) result.length;
+            }
+        } else {
+            shortestMetrics.start();
+            LongDistances shortest = DAGShortestPath.shortestPathLong(sourceComponent, condensationGraph, condensationTopo, shortestMetrics);
+            shortestMetrics.stop();
 
-        List<CondensationEdge> condensationEdges = new ArrayList<>();
-        for (int i = 0; i < condensationAdj.size(); i++) {
-            for (int j : condensationAdj.get(i)) {
-                condensationEdges.add(new CondensationEdge(i, j));
+            longestMetrics.start();
+            LongDistances longest = DAGLongestPath.longestPathLong(sourceComponent, condensationGraph, condensationTopo, longestMetrics);
+            longestMetrics.stop();
+
+            for (int i = shortest.reachable.nextSetBit(0); i >= 0; i = shortest.reachable.nextSetBit(i + 1)) {
+                shortestDistances.put(i, shortest.dist[i]);
+            }
+            for (int i = longest.reachable.nextSetBit(0); i >= 0; i = longest.reachable.nextSetBit(i + 1)) {
+                longestDistances.put(i, longest.dist[i]);
+            }
+            int target = longest.argMax();
+            if (target != -1) {
+                criticalPath = new ArrayList<>();
+                for (int node : longest.pathTo(target)) criticalPath.add(node);
+                criticalPathLength = longest.dist[target];
             }
         }
 
-        Map<Integer, Integer> shortestDistances = new HashMap<>();
-        for (int i = 0; i < shortestDist.length; i++) {
-            if (shortestDist[i] != Integer.MAX_VALUE) {
-                shortestDistances.put(i, shortestDist[i]);
-            }
+        Map<String, Long> sccCounters = sccMetrics.getCounters();
+        Map<String, Long> topoCounters = topoMetrics.getCounters();
+        Map<String, Long> shortestCounters = shortestMetrics.getCounters();
+        Map<String, Long> longestCounters = longestMetrics.getCounters();
+
+        List<ComponentInfo> componentInfos = new ArrayList<>();
+        for (int i = 0; i < components.size(); i++) {
+            componentInfos.add(new ComponentInfo(i, components.get(i)));
         }
 
-        Map<Integer, Integer> longestDistances = new HashMap<>();
-        for (int i = 0; i < longestDist.length; i++) {
-            if (longestDist[i] != Integer.MIN_VALUE) {
-                longestDistances.put(i, longestDist[i]);
+        List<CondensationEdge> condensationEdges = new ArrayList<>();
+        for (int i = 0; i < condensationGraph.n; i++) {
+            for (int e = condensationGraph.offsets[i]; e < condensationGraph.offsets[i + 1]; e++) {
+                condensationEdges.add(new CondensationEdge(i, condensationGraph.targets[e]));
             }
         }
 
-        return new DatasetResult(
+        DatasetResult result = new DatasetResult(
             datasetName,
             graphData.n,
-            graphData.edges.size(),
+            graphData.edgeCount,
             graphData.source,
             components.size(),
             componentInfos,
@@ -128,8 +228,8 @@ public class Main {
             sourceComponent,
             shortestDistances,
             longestDistances,
-            criticalPath != null ? criticalPath.path : null,
-            criticalPath != null ? criticalPath.length : null,
+            criticalPath,
+            criticalPathLength,
             sccMetrics.getTimeMillis(),
             sccCounters,
             topoMetrics.getTimeMillis(),
@@ -139,152 +239,188 @@ public class Main {
             longestMetrics.getTimeMillis(),
             longestCounters
         );
+
+        if (scheduleWorkers > 0) {
+            AlgorithmMetrics scheduleMetrics = new AlgorithmMetrics();
+            scheduleMetrics.start();
+            result.schedule = ListScheduler.schedule(condensationGraph, condensationTopo, scc, scheduleWorkers, scheduleMetrics);
+            scheduleMetrics.stop();
+            result.scheduleTime = scheduleMetrics.getTimeMillis();
+            result.scheduleCounters = scheduleMetrics.getCounters();
+        }
+        return result;
     }
 
-    private static void writeResultsToFile(List<DatasetResult> results, String filename) throws IOException {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append("  \"datasets\": [\n");
-        
-        for (int i = 0; i < results.size(); i++) {
-            DatasetResult r = results.get(i);
-            json.append("    {\n");
-            json.append("      \"dataset\": \"").append(r.dataset).append("\",\n");
-            json.append("      \"graph_info\": {\n");
-            json.append("        \"nodes\": ").append(r.nodes).append(",\n");
-            json.append("        \"edges\": ").append(r.edges).append(",\n");
-            json.append("        \"source\": ").append(r.source).append("\n");
-            json.append("      },\n");
+    static class ResultWriter implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final Writer json;
+        private int written = 0;
+        private boolean committed = false;
+
+        ResultWriter(Path target) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.json = Files.newBufferedWriter(temp);
+            json.write("{\n");
+            json.write("  \"datasets\": [\n");
+        }
+
+        void write(DatasetResult r) throws IOException {
+            if (written++ > 0) json.write(",\n");
+            json.write("    {\n");
+            json.write("      \"dataset\": \""); json.write(r.dataset); json.write("\",\n");
+            json.write("      \"graph_info\": {\n");
+            json.write("        \"nodes\": "); writeInt(r.nodes); json.write(",\n");
+            json.write("        \"edges\": "); writeInt(r.edges); json.write(",\n");
+            json.write("        \"source\": "); writeInt(r.source); json.write("\n");
+            json.write("      },\n");
             
-            json.append("      \"scc\": {\n");
-            json.append("        \"number_of_components\": ").append(r.numComponents).append(",\n");
-            json.append("        \"components\": [\n");
+            json.write("      \"scc\": {\n");
+            json.write("        \"number_of_components\": "); writeInt(r.numComponents); json.write(",\n");
+            json.write("        \"components\": [\n");
             for (int j = 0; j < r.components.size(); j++) {
                 ComponentInfo comp = r.components.get(j);
-                json.append("          {\n");
-                json.append("            \"id\": ").append(comp.id).append(",\n");
-                json.append("            \"nodes\": ").append(listToJson(comp.nodes)).append(",\n");
-                json.append("            \"size\": ").append(comp.nodes.size()).append("\n");
-                json.append("          }");
-                if (j < r.components.size() - 1) json.append(",");
-                json.append("\n");
+                json.write("          {\n");
+                json.write("            \"id\": "); writeInt(comp.id); json.write(",\n");
+                json.write("            \"nodes\": "); writeList(comp.nodes); json.write(",\n");
+                json.write("            \"size\": "); writeInt(comp.nodes.size()); json.write("\n");
+                json.write("          }");
+                if (j < r.components.size() - 1) json.write(",");
+                json.write("\n");
             }
-            json.append("        ],\n");
-            json.append("        \"metrics\": {\n");
-            json.append("          \"time_ms\": ").append(String.format("%.4f", r.sccTime)).append(",\n");
-            json.append("          \"counters\": ").append(mapToJson(r.sccCounters)).append("\n");
-            json.append("        }\n");
-            json.append("      },\n");
+            json.write("        ],\n");
+            writeMetrics(r.sccTime, r.sccCounters);
+            json.write("      },\n");
             
-            json.append("      \"condensation_graph\": {\n");
-            json.append("        \"edges\": [\n");
+            json.write("      \"condensation_graph\": {\n");
+            json.write("        \"edges\": [\n");
             for (int j = 0; j < r.condensationEdges.size(); j++) {
                 CondensationEdge e = r.condensationEdges.get(j);
-                json.append("          {\"from\": ").append(e.from).append(", \"to\": ").append(e.to).append("}");
-                if (j < r.condensationEdges.size() - 1) json.append(",");
-                json.append("\n");
+                json.write("          {\"from\": "); writeInt(e.from); json.write(", \"to\": "); writeInt(e.to); json.write("}");
+                if (j < r.condensationEdges.size() - 1) json.write(",");
+                json.write("\n");
             }
-            json.append("        ]\n");
-            json.append("      },\n");
+            json.write("        ]\n");
+            json.write("      },\n");
             
-            json.append("      \"topological_sort\": {\n");
-            json.append("        \"component_order\": ").append(listToJson(r.componentOrder)).append(",\n");
-            json.append("        \"task_order\": ").append(listToJson(r.taskOrder)).append(",\n");
-            json.append("        \"metrics\": {\n");
-            json.append("          \"time_ms\": ").append(String.format("%.4f", r.topoTime)).append(",\n");
-            json.append("          \"counters\": ").append(mapToJson(r.topoCounters)).append("\n");
-            json.append("        }\n");
-            json.append("      },\n");
+            json.write("      \"topological_sort\": {\n");
+            json.write("        \"component_order\": "); writeList(r.componentOrder); json.write(",\n");
+            json.write("        \"task_order\": "); writeList(r.taskOrder); json.write(",\n");
+            writeMetrics(r.topoTime, r.topoCounters);
+            json.write("      },\n");
             
-            json.append("      \"shortest_paths\": {\n");
-            json.append("        \"source_component\": ").append(r.sourceComponent).append(",\n");
-            json.append("        \"distances\": ").append(intMapToJson(r.shortestDistances)).append(",\n");
-            json.append("        \"metrics\": {\n");
-            json.append("          \"time_ms\": ").append(String.format("%.4f", r.shortestTime)).append(",\n");
-            json.append("          \"counters\": ").append(mapToJson(r.shortestCounters)).append("\n");
-            json.append("        }\n");
-            json.append("      },\n");
+            json.write("      \"shortest_paths\": {\n");
+            json.write("        \"source_component\": "); writeInt(r.sourceComponent); json.write(",\n");
+            json.write("        \"distances\": "); writeMap(r.shortestDistances); json.write(",\n");
+            writeMetrics(r.shortestTime, r.shortestCounters);
+            json.write("      },\n");
             
-            json.append("      \"longest_paths\": {\n");
-            json.append("        \"source_component\": ").append(r.sourceComponent).append(",\n");
-            json.append("        \"distances\": ").append(intMapToJson(r.longestDistances)).append(",\n");
+            json.write("      \"longest_paths\": {\n");
+            json.write("        \"source_component\": "); writeInt(r.sourceComponent); json.write(",\n");
+            json.write("        \"distances\": "); writeMap(r.longestDistances); json.write(",\n");
             if (r.criticalPath != null) {
-                json.append("        \"critical_path\": {\n");
-                json.append("          \"path\": ").append(listToJson(r.criticalPath)).append(",\n");
-                json.append("          \"length\": ").append(r.criticalPathLength).append("\n");
-                json.append("        },\n");
+                json.write("        \"critical_path\": {\n");
+                json.write("          \"path\": "); writeList(r.criticalPath); json.write(",\n");
+                json.write("          \"length\": "); json.write(String.valueOf(r.criticalPathLength)); json.write("\n");
+                json.write("        },\n");
+            }
+            writeMetrics(r.longestTime, r.longestCounters);
+            json.write(r.schedule != null ? "      },\n" : "      }\n");
+
+            if (r.schedule != null) {
+                ListScheduler.Schedule schedule = r.schedule;
+                json.write("      \"schedule\": {\n");
+                json.write("        \"workers\": "); writeInt(schedule.workers); json.write(",\n");
+                json.write("        \"makespan\": "); json.write(Long.toString(schedule.makespan)); json.write(",\n");
+                json.write("        \"idle_time\": "); json.write(Long.toString(schedule.idleTime())); json.write(",\n");
+                json.write("        \"critical_path_bound\": "); json.write(Long.toString(schedule.criticalPathBound)); json.write(",\n");
+                json.write("        \"timelines\": [\n");
+                for (int w = 0; w < schedule.workers; w++) {
+                    json.write("          [");
+                    int[] tasks = schedule.timeline(w);
+                    for (int i = 0; i < tasks.length; i++) {
+                        int c = tasks[i];
+                        json.write("{\"component\": "); writeInt(c);
+                        json.write(", \"start\": "); json.write(Long.toString(schedule.start[c]));
+                        json.write(", \"finish\": "); json.write(Long.toString(schedule.finish[c])); json.write("}");
+                        if (i < tasks.length - 1) json.write(", ");
+                    }
+                    json.write(w < schedule.workers - 1 ? "],\n" : "]\n");
+                }
+                json.write("        ],\n");
+                writeMetrics(r.scheduleTime, r.scheduleCounters);
+                json.write("      }\n");
             }
-            json.append("        \"metrics\": {\n");
-            json.append("          \"time_ms\": ").append(String.format("%.4f", r.longestTime)).append(",\n");
-            json.append("          \"counters\": ").append(mapToJson(r.longestCounters)).append("\n");
-            json.append("        }\n");
-            json.append("      }\n");
             
-            json.append("    }");
-            if (i < results.size() - 1) json.append(",");
-            json.append("\n");
+            json.write("    }");
         }
-        
-        json.append("  ]\n");
-        json.append("}\n");
-        
-        Files.write(Paths.get(filename), json.toString().getBytes());
-    }
 
-    private static String listToJson(List<Integer> list) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < list.size(); i++) {
-            sb.append(list.get(i));
-            if (i < list.size() - 1) sb.append(", ");
+        private void writeMetrics(double timeMs, Map<String, Long> counters) throws IOException {
+            json.write("        \"metrics\": {\n");
+            json.write("          \"time_ms\": "); json.write(String.format("%.4f", timeMs)); json.write(",\n");
+            json.write("          \"counters\": "); writeMap(counters); json.write("\n");
+            json.write("        }\n");
         }
-        sb.append("]");
-        return sb.toString();
-    }
 
-    private static String mapToJson(Map<String, Integer> map) {
-        StringBuilder sb = new StringBuilder("{");
-        int i = 0;
-        for (Map.Entry<String, Integer> entry : map.entrySet()) {
-            sb.append("\"").append(entry.getKey()).append("\": ").append(entry.getValue());
-            if (i < map.size() - 1) sb.append(", ");
-            i++;
+        private void writeInt(int value) throws IOException {
+            json.write(Integer.toString(value));
         }
-        sb.append("}");
-        return sb.toString();
-    }
 
-    private static String intMapToJson(Map<Integer, Integer> map) {
-        StringBuilder sb = new StringBuilder("{");
-        int i = 0;
-        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
-            sb.append("\"").append(entry.getKey()).append("\": ").append(entry.getValue());
-            if (i < map.size() - 1) sb.append(", ");
-            i++;
+        private void writeList(List<Integer> list) throws IOException {
+            json.write("[");
+            for (int i = 0; i < list.size(); i++) {
+                writeInt(list.get(i));
+                if (i < list.size() - 1) json.write(", ");
+            }
+            json.write("]");
+        }
+
+        private void writeMap(Map<?, ? extends Number> map) throws IOException {
+            json.write("{");
+            int i = 0;
+            for (Map.Entry<?, ? extends Number> entry : map.entrySet()) {
+                json.write("\""); json.write(String.valueOf(entry.getKey())); json.write("\": "); json.write(entry.getValue().toString());
+                if (i < map.size() - 1) json.write(", ");
+                i++;
+            }
+            json.write("}");
         }
-        sb.append("}");
-        return sb.toString();
-    }
 
-    private static List<List<Integer>> buildAdjacencyList(int n, List<int[]> edges) {
-        List<List<Integer>> adj = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            adj.add(new ArrayList<>());
+        void commit() throws IOException {
+            try (Writer out = json) {
+                if (written > 0) out.write("\n");
+                out.write("  ]\n");
+                out.write("}\n");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
         }
-        for (int[] edge : edges) {
-            adj.get(edge[0]).add(edge[1]);
+
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            try {
+                json.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
         }
-        return adj;
     }
 
-    private static List<List<int[]>> buildWeightedAdjacencyList(int n, List<int[]> edges) {
-        List<List<int[]>> adj = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            adj.add(new ArrayList<>());
-        }
-        for (int[] edge : edges) {
-            adj.get(edge[0]).add(new int[]{edge[1], edge[2]});
+    static class Job {
+        static final Job END = new Job(-1, null);
+
+        final int index;
+        final String name;
+        GraphLoader.GraphData data;
+        DatasetResult result;
+        Throwable error;
+
+        Job(int index, String name) {
+            this.index = index;
+            this.name = name;
         }
-        return adj;
     }
 
     static class DatasetResult {
@@ -295,21 +431,24 @@ public class Main {
         List<CondensationEdge> condensationEdges;
         List<Integer> componentOrder, taskOrder;
         int sourceComponent;
-        Map<Integer, Integer> shortestDistances, longestDistances;
+        Map<Integer, Long> shortestDistances, longestDistances;
         List<Integer> criticalPath;
-        Integer criticalPathLength;
+        Long criticalPathLength;
         double sccTime, topoTime, shortestTime, longestTime;
-        Map<String, Integer> sccCounters, topoCounters, shortestCounters, longestCounters;
+        Map<String, Long> sccCounters, topoCounters, shortestCounters, longestCounters;
+        ListScheduler.Schedule schedule;
+        double scheduleTime;
+        Map<String, Long> scheduleCounters;
 
         DatasetResult(String dataset, int nodes, int edges, int source, int numComponents,
                      List<ComponentInfo> components, List<CondensationEdge> condensationEdges,
                      List<Integer> componentOrder, List<Integer> taskOrder, int sourceComponent,
-                     Map<Integer, Integer> shortestDistances, Map<Integer, Integer> longestDistances,
-                     List<Integer> criticalPath, Integer criticalPathLength,
-                     double sccTime, Map<String, Integer> sccCounters,
-                     double topoTime, Map<String, Integer> topoCounters,
-                     double shortestTime, Map<String, Integer> shortestCounters,
-                     double longestTime, Map<String, Integer> longestCounters) {
+                     Map<Integer, Long> shortestDistances, Map<Integer, Long> longestDistances,
+                     List<Integer> criticalPath, Long criticalPathLength,
+                     double sccTime, Map<String, Long> sccCounters,
+                     double topoTime, Map<String, Long> topoCounters,
+                     double shortestTime, Map<String, Long> shortestCounters,
+                     double longestTime, Map<String, Long> longestCounters) {
             this.dataset = dataset;
             this.nodes = nodes;
             this.edges = edges;
@@ -0,0 +1,145 @@
+package data;
+
+import graph.CSRGraph;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.zip.CRC32C;
+
+public class BinaryGraphFile {
+    public static final int MAGIC = 0x47525343;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final String EXTENSION = ".csrg";
+
+    private static final int HEADER_CHECKSUM_OFFSET = 48;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    public static void write(CSRGraph graph, int source, Path path) throws IOException {
+        if (graph.hasLongWeights()) throw new IOException("Binary graph format version " + VERSION + " stores 32-bit weights only");
+        int n = graph.n;
+        int m = graph.edgeCount();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_SIZE);
+            long offsetsChecksum = writeSection(channel, buffer, graph.offsets, n + 1);
+            long targetsChecksum = writeSection(channel, buffer, graph.targets, m);
+            long weightsChecksum = writeSection(channel, buffer, graph.weights, m);
+            writeHeader(channel, n, source, m, offsetsChecksum, targetsChecksum, weightsChecksum);
+        }
+    }
+
+    static void writeHeader(FileChannel channel, int n, int source, long m,
+                            long offsetsChecksum, long targetsChecksum, long weightsChecksum) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(source).putLong(m);
+        header.putLong(offsetsChecksum).putLong(targetsChecksum).putLong(weightsChecksum);
+        header.putInt(HEADER_CHECKSUM_OFFSET, (int) checksum(header, HEADER_CHECKSUM_OFFSET));
+        header.clear();
+        while (header.hasRemaining()) channel.write(header, header.position());
+    }
+
+    private static long writeSection(FileChannel channel, ByteBuffer buffer, int[] values, int count) throws IOException {
+        CRC32C crc = new CRC32C();
+        IntBuffer ints = buffer.clear().asIntBuffer();
+        for (int i = 0; i < count; ) {
+            int chunk = Math.min(count - i, ints.capacity());
+            ints.clear();
+            ints.put(values, i, chunk);
+            buffer.clear().limit(chunk * Integer.BYTES);
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            i += chunk;
+        }
+        return crc.getValue();
+    }
+
+    public static MappedCSRGraph open(Path path) throws IOException {
+        return open(path, false);
+    }
+
+    public static MappedCSRGraph open(Path path, boolean verifyChecksums) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("Not a binary graph file: " + path);
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a binary graph file: " + path);
+            int version = header.getInt(4);
+            if (version != VERSION) throw new IOException("Unsupported binary graph version " + version + " in " + path);
+            if (header.getInt(HEADER_CHECKSUM_OFFSET) != (int) checksum(header, HEADER_CHECKSUM_OFFSET)) {
+                throw new IOException("Corrupt header in " + path);
+            }
+
+            int n = header.getInt(8);
+            int source = header.getInt(12);
+            long m = header.getLong(16);
+            long offsetsBytes = (n + 1L) * Integer.BYTES;
+            long edgeBytes = m * Integer.BYTES;
+            if (edgeBytes > Integer.MAX_VALUE || offsetsBytes > Integer.MAX_VALUE) {
+                throw new IOException("Graph too large to map as a single section: " + path);
+            }
+            if (channel.size() != HEADER_SIZE + offsetsBytes + 2 * edgeBytes) {
+                throw new IOException("Truncated binary graph file: " + path);
+            }
+
+            ByteBuffer offsets = mapSection(channel, HEADER_SIZE, offsetsBytes);
+            ByteBuffer targets = mapSection(channel, HEADER_SIZE + offsetsBytes, edgeBytes);
+            ByteBuffer weights = mapSection(channel, HEADER_SIZE + offsetsBytes + edgeBytes, edgeBytes);
+
+            if (verifyChecksums) {
+                verify(offsets, header.getLong(24), "offsets", path);
+                verify(targets, header.getLong(32), "targets", path);
+                verify(weights, header.getLong(40), "weights", path);
+            }
+
+            return new MappedCSRGraph(n, (int) m, source, offsets.asIntBuffer(), targets.asIntBuffer(), weights.asIntBuffer());
+        }
+    }
+
+    private static ByteBuffer mapSection(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void verify(ByteBuffer section, long expected, String name, Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(section.duplicate());
+        if (crc.getValue() != expected) throw new IOException("Checksum mismatch in " + name + " section of " + path);
+    }
+
+    private static long checksum(ByteBuffer header, int length) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer prefix = header.duplicate();
+        prefix.clear().limit(length);
+        crc.update(prefix);
+        return crc.getValue();
+    }
+
+    public static Path convert(Path jsonFile) throws IOException {
+        GraphLoader.GraphData data = GraphLoader.loadGraph(jsonFile.toString());
+        if (data.hasLongWeights()) {
+            throw new IOException("Binary graph format version " + VERSION + " stores 32-bit weights only; " + jsonFile + " has weights outside int range");
+        }
+        CSRGraph graph = CSRGraph.fromArrays(data.n, data.edgeCount, data.from, data.to, data.weights);
+        String name = jsonFile.getFileName().toString();
+        if (name.endsWith(".json")) name = name.substring(0, name.length() - ".json".length());
+        Path target = jsonFile.resolveSibling(name + EXTENSION);
+        write(graph, data.source, target);
+        return target;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) args = new String[]{"src/data"};
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.json")) {
+                    for (Path file : files) {
+                        System.out.println("Converted: " + convert(file));
+                    }
+                }
+            } else {
+                System.out.println("Converted: " + convert(path));
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package data;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+public class ExternalCSRBuilder implements GraphGenerator.EdgeSink, StreamingGraphLoader.EdgeVisitor, Closeable {
+    public static final int DEFAULT_RUN_EDGES = 1 << 20;
+    public static final long MAX_EDGES = Integer.MAX_VALUE / Integer.BYTES;
+
+    private static final int RECORD_BYTES = 3 * Integer.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final Path output;
+    private final Path workDir;
+    private final int runEdges;
+    private final boolean mergeDuplicates;
+    private final int[] from, to, weights;
+    private final long[] keys;
+    private final List<Path> temporaries = new ArrayList<>();
+    private final ArrayDeque<Path> runs = new ArrayDeque<>();
+    private ByteBuffer buffer;
+    private int size;
+    private int n, source, maxVertex = -1;
+    private long edges;
+    private long written = -1;
+
+    public ExternalCSRBuilder(Path output) {
+        this(output, output.toAbsolutePath().getParent(), DEFAULT_RUN_EDGES, false);
+    }
+
+    public ExternalCSRBuilder(Path output, Path workDir, int runEdges, boolean mergeDuplicates) {
+        if (runEdges < 1) throw new IllegalArgumentException("runEdges must be positive");
+        this.output = output;
+        this.workDir = workDir;
+        this.runEdges = runEdges;
+        this.mergeDuplicates = mergeDuplicates;
+        from = new int[runEdges];
+        to = new int[runEdges];
+        weights = new int[runEdges];
+        keys = new long[runEdges];
+    }
+
+    public static StreamingGraphLoader.Header fromJson(Path json, Path output, Path workDir, int runEdges) throws IOException {
+        try (ExternalCSRBuilder builder = new ExternalCSRBuilder(output, workDir, runEdges, false)) {
+            StreamingGraphLoader.Header header = StreamingGraphLoader.stream(json.toString(), builder);
+            builder.finish(header.n, header.source);
+            return header;
+        }
+    }
+
+    @Override
+    public void begin(int n, int source) {
+        this.n = n;
+        this.source = source;
+    }
+
+    @Override
+    public void edge(int u, int v, int w) throws IOException {
+        if (written >= 0) throw new IllegalStateException("Builder already finished");
+        if (u < 0 || v < 0) throw new IOException("Negative vertex id in edge " + u + " -> " + v);
+        if (edges == MAX_EDGES) throw new IOException("More than " + MAX_EDGES + " edges do not fit a single mapped section");
+        if (size == runEdges) spill();
+        from[size] = u;
+        to[size] = v;
+        weights[size] = w;
+        size++;
+        edges++;
+        maxVertex = Math.max(maxVertex, Math.max(u, v));
+    }
+
+    @Override
+    public void end() throws IOException {
+        finish(n, source);
+    }
+
+    public long finish(int n, int source) throws IOException {
+        if (written >= 0) return written;
+        if (size > 0) spill();
+        int vertices = Math.max(n, maxVertex + 1);
+        int[] offsets = new int[vertices + 1];
+
+        Path targetsFile = temporary("csr-targets-");
+        Path weightsFile = temporary("csr-weights-");
+        long targetsChecksum, weightsChecksum, m;
+        try (FileChannel targetsChannel = FileChannel.open(targetsFile, StandardOpenOption.WRITE);
+             FileChannel weightsChannel = FileChannel.open(weightsFile, StandardOpenOption.WRITE)) {
+            SectionWriter targetsOut = new SectionWriter(targetsChannel, writeBuffer());
+            SectionWriter weightsOut = new SectionWriter(weightsChannel, ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+            m = merge(offsets, targetsOut, weightsOut);
+            targetsChecksum = targetsOut.finish();
+            weightsChecksum = weightsOut.finish();
+        }
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.position(BinaryGraphFile.HEADER_SIZE);
+            SectionWriter offsetsOut = new SectionWriter(out, writeBuffer());
+            offsetsOut.put(0);
+            for (int u = 0; u < vertices; u++) {
+                offsets[u + 1] += offsets[u];
+                offsetsOut.put(offsets[u + 1]);
+            }
+            long offsetsChecksum = offsetsOut.finish();
+            append(targetsFile, out);
+            append(weightsFile, out);
+            BinaryGraphFile.writeHeader(out, vertices, source, m, offsetsChecksum, targetsChecksum, weightsChecksum);
+        }
+        close();
+        written = m;
+        return m;
+    }
+
+    public long edgeCount() {
+        return written >= 0 ? written : edges;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path temporary : temporaries) Files.deleteIfExists(temporary);
+        temporaries.clear();
+        runs.clear();
+    }
+
+    private void spill() throws IOException {
+        for (int i = 0; i < size; i++) keys[i] = (long) from[i] << 32 | i;
+        Arrays.sort(keys, 0, size);
+        if (mergeDuplicates) sortTargets();
+
+        Path run = temporary("csr-run-");
+        runs.add(run);
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            ByteBuffer out = writeBuffer();
+            for (int i = 0; i < size; i++) {
+                if (out.remaining() < RECORD_BYTES) drain(out, channel);
+                int idx = (int) keys[i];
+                out.putInt(from[idx]).putInt(to[idx]).putInt(weights[idx]);
+            }
+            drain(out, channel);
+        }
+        size = 0;
+    }
+
+    private void sortTargets() {
+        for (int a = 0; a < size; ) {
+            long u = keys[a] >>> 32;
+            int b = a + 1;
+            while (b < size && keys[b] >>> 32 == u) b++;
+            if (b - a > 1) {
+                for (int i = a; i < b; i++) {
+                    int idx = (int) keys[i];
+                    keys[i] = (long) to[idx] << 32 | idx;
+                }
+                Arrays.sort(keys, a, b);
+            }
+            a = b;
+        }
+    }
+
+    private long merge(int[] offsets, SectionWriter targetsOut, SectionWriter weightsOut) throws IOException {
+        int k = runs.size();
+        RunReader[] readers = new RunReader[k];
+        int[] heap = new int[k];
+        int heapSize = 0;
+        long m = 0;
+        try {
+            for (int r = 0; r < k; r++) {
+                readers[r] = new RunReader(runs.poll());
+                if (readers[r].advance()) heap[heapSize++] = r;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) siftDown(heap, heapSize, i, readers);
+
+            int lastFrom = -1, lastTo = -1, lastWeight = 0;
+            while (heapSize > 0) {
+                RunReader top = readers[heap[0]];
+                int u = top.from, v = top.to, w = top.weight;
+                if (top.advance()) {
+                    siftDown(heap, heapSize, 0, readers);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(heap, heapSize, 0, readers);
+                }
+
+                if (mergeDuplicates) {
+                    if (u == lastFrom && v == lastTo) {
+                        lastWeight = Math.min(lastWeight, w);
+                        continue;
+                    }
+                    if (lastFrom >= 0) {
+                        emit(lastFrom, lastTo, lastWeight, offsets, targetsOut, weightsOut);
+                        m++;
+                    }
+                    lastFrom = u;
+                    lastTo = v;
+                    lastWeight = w;
+                } else {
+                    emit(u, v, w, offsets, targetsOut, weightsOut);
+                    m++;
+                }
+            }
+            if (mergeDuplicates && lastFrom >= 0) {
+                emit(lastFrom, lastTo, lastWeight, offsets, targetsOut, weightsOut);
+                m++;
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+        return m;
+    }
+
+    private static void emit(int u, int v, int w, int[] offsets, SectionWriter targetsOut, SectionWriter weightsOut) throws IOException {
+        offsets[u + 1]++;
+        targetsOut.put(v);
+        weightsOut.put(w);
+    }
+
+    private void siftDown(int[] heap, int heapSize, int i, RunReader[] readers) {
+        int r = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child], readers)) child++;
+            if (!less(heap[child], r, readers)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+
+    private boolean less(int a, int b, RunReader[] readers) {
+        RunReader x = readers[a], y = readers[b];
+        if (x.from != y.from) return x.from < y.from;
+        if (mergeDuplicates && x.to != y.to) return x.to < y.to;
+        return a < b;
+    }
+
+    private Path temporary(String prefix) throws IOException {
+        Path path = Files.createTempFile(workDir, prefix, ".bin");
+        temporaries.add(path);
+        return path;
+    }
+
+    private ByteBuffer writeBuffer() {
+        if (buffer == null) buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        return buffer.clear();
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static void append(Path section, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(section, StandardOpenOption.READ)) {
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static class SectionWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32C crc = new CRC32C();
+
+        SectionWriter(WritableByteChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        void put(int value) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.putInt(value);
+        }
+
+        long finish() throws IOException {
+            flush();
+            return crc.getValue();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static class RunReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int from, to, weight;
+
+        RunReader(Path run) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            buffer.flip();
+        }
+
+        boolean advance() throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                buffer.compact();
+                int read = 0;
+                while (buffer.position() < RECORD_BYTES && read >= 0) read = channel.read(buffer);
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES) return false;
+            }
+            from = buffer.getInt();
+            to = buffer.getInt();
+            weight = buffer.getInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
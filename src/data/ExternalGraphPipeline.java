@@ -0,0 +1,155 @@
+package data;
+
+import graph.scc.SemiExternalSCC;
+import graph.topo.KahnTopo;
+import metrics.Metrics;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.function.IntConsumer;
+
+public class ExternalGraphPipeline {
+    public static final String GRAPH_FILE = "graph" + BinaryGraphFile.EXTENSION;
+    public static final String COMPONENTS_FILE = "components.bin";
+    public static final String CONDENSATION_FILE = "condensation" + BinaryGraphFile.EXTENSION;
+    public static final String TOPO_FILE = "topo.bin";
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    public static class Result {
+        public final int n;
+        public final long edgeCount;
+        public final int componentCount;
+        public final long condensationEdges;
+        public final int ordered;
+        public final Path graphFile, componentsFile, condensationFile, topoFile;
+
+        Result(int n, long edgeCount, int componentCount, long condensationEdges, int ordered,
+               Path graphFile, Path componentsFile, Path condensationFile, Path topoFile) {
+            this.n = n;
+            this.edgeCount = edgeCount;
+            this.componentCount = componentCount;
+            this.condensationEdges = condensationEdges;
+            this.ordered = ordered;
+            this.graphFile = graphFile;
+            this.componentsFile = componentsFile;
+            this.condensationFile = condensationFile;
+            this.topoFile = topoFile;
+        }
+
+        public boolean isComplete() {
+            return ordered == componentCount;
+        }
+    }
+
+    public static Result run(Path input, Path workDir, int runEdges, Metrics metrics) throws IOException {
+        Files.createDirectories(workDir);
+        Path graphFile = input;
+        if (!input.toString().endsWith(BinaryGraphFile.EXTENSION)) {
+            graphFile = workDir.resolve(GRAPH_FILE);
+            ExternalCSRBuilder.fromJson(input, graphFile, workDir, runEdges);
+        }
+
+        MappedCSRGraph graph = BinaryGraphFile.open(graphFile);
+        int[] componentOf;
+        int componentCount;
+        {
+            SemiExternalSCC scc = new SemiExternalSCC(graph.n, graph.getOffsets(), graph.getTargets(), metrics);
+            componentOf = scc.getComponentOf();
+            componentCount = scc.getComponentCount();
+        }
+        Path componentsFile = workDir.resolve(COMPONENTS_FILE);
+        try (IntWriter out = new IntWriter(componentsFile)) {
+            for (int c : componentOf) out.accept(c);
+        }
+
+        Path condensationFile = workDir.resolve(CONDENSATION_FILE);
+        long condensationEdges;
+        try (ExternalCSRBuilder builder = new ExternalCSRBuilder(condensationFile, workDir, runEdges, true)) {
+            for (int u = 0; u < graph.n; u++) {
+                int cu = componentOf[u];
+                for (int e = graph.offset(u); e < graph.offset(u + 1); e++) {
+                    int cv = componentOf[graph.target(e)];
+                    if (cu != cv) builder.edge(cu, cv, graph.weight(e));
+                }
+            }
+            int source = graph.source >= 0 && graph.source < graph.n ? componentOf[graph.source] : 0;
+            condensationEdges = builder.finish(componentCount, source);
+        }
+
+        MappedCSRGraph dag = BinaryGraphFile.open(condensationFile);
+        Path topoFile = workDir.resolve(TOPO_FILE);
+        int ordered;
+        try (IntWriter out = new IntWriter(topoFile)) {
+            ordered = KahnTopo.topologicalSort(dag.n, dag.getOffsets(), dag.getTargets(), out, metrics);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(graph.n, graph.edgeCount, componentCount, condensationEdges, ordered,
+            graphFile, componentsFile, condensationFile, topoFile);
+    }
+
+    public static IntBuffer readInts(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    private static class IntWriter implements IntConsumer, Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        IntWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (!buffer.hasRemaining()) flush();
+            buffer.putInt(value);
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ExternalGraphPipeline <graph.json|graph.csrg> <workDir> [--run-edges N]");
+            return;
+        }
+        int runEdges = ExternalCSRBuilder.DEFAULT_RUN_EDGES;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--run-edges") && i + 1 < args.length) runEdges = Math.max(1, Integer.parseInt(args[++i]));
+        }
+
+        long start = System.nanoTime();
+        Result result = run(Paths.get(args[0]), Paths.get(args[1]), runEdges, null);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Nodes: " + result.n + ", edges: " + result.edgeCount);
+        System.out.println("Components: " + result.componentCount + ", condensation edges: " + result.condensationEdges);
+        System.out.println("Topological order: " + result.ordered + " of " + result.componentCount
+            + (result.isComplete() ? "" : " (condensation is not a DAG)"));
+        System.out.println("Wrote " + result.componentsFile + ", " + result.condensationFile + ", " + result.topoFile
+            + " in " + elapsed + " ms");
+    }
+}
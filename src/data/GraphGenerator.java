@@ -0,0 +1,280 @@
+package data;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class GraphGenerator {
+    public enum Shape { SPARSE_DAG, DENSE_DAG, SCC_CLUSTERS, CHAIN, POWER_LAW }
+
+    public interface EdgeSink {
+        void begin(int n, int source) throws IOException;
+        void edge(int u, int v, int w) throws IOException;
+        void end() throws IOException;
+    }
+
+    private static final int SPARSE_WINDOW = 64;
+    private static final double SCC_SIZE_EXPONENT = 1.2;
+    private static final double FAN_OUT_EXPONENT = 2.1;
+
+    private final SplittableRandom random;
+    private final int minWeight;
+    private final int maxWeight;
+
+    public GraphGenerator(long seed) {
+        this(seed, 1, 100);
+    }
+
+    public GraphGenerator(long seed, int minWeight, int maxWeight) {
+        if (minWeight > maxWeight) throw new IllegalArgumentException("minWeight > maxWeight");
+        this.random = new SplittableRandom(seed);
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+    }
+
+    public void generate(Shape shape, int n, int avgDegree, EdgeSink sink) throws IOException {
+        switch (shape) {
+            case SPARSE_DAG: dag(n, avgDegree, SPARSE_WINDOW, sink); break;
+            case DENSE_DAG: dag(n, avgDegree, n, sink); break;
+            case SCC_CLUSTERS: sccClusters(n, Math.max(1, n / 16), SCC_SIZE_EXPONENT, avgDegree, sink); break;
+            case CHAIN: chain(n, sink); break;
+            case POWER_LAW: powerLaw(n, avgDegree, FAN_OUT_EXPONENT, false, sink); break;
+        }
+    }
+
+    public void dag(int n, int avgDegree, int window, EdgeSink sink) throws IOException {
+        sink.begin(n, 0);
+        for (int u = 0; u < n - 1; u++) {
+            int span = Math.min(window, n - u - 1);
+            for (int k = 0; k < avgDegree; k++) {
+                sink.edge(u, u + 1 + random.nextInt(span), weight());
+            }
+        }
+        sink.end();
+    }
+
+    public void chain(int n, EdgeSink sink) throws IOException {
+        sink.begin(n, 0);
+        for (int u = 0; u < n - 1; u++) sink.edge(u, u + 1, weight());
+        sink.end();
+    }
+
+    public void sccClusters(int n, int components, double sizeExponent, int avgDegree, EdgeSink sink) throws IOException {
+        if (components < 1 || components > n) throw new IllegalArgumentException("components must be in [1, n]");
+        int[] start = componentStarts(n, components, sizeExponent);
+
+        sink.begin(n, 0);
+        for (int c = 0; c < components; c++) {
+            int first = start[c], end = start[c + 1], size = end - first;
+            for (int u = first; u < end; u++) {
+                int extra = avgDegree;
+                if (size > 1) {
+                    sink.edge(u, u + 1 < end ? u + 1 : first, weight());
+                    extra--;
+                }
+                for (int k = 0; k < extra; k++) {
+                    boolean inter = end < n && (size == 1 || random.nextBoolean());
+                    if (inter) {
+                        sink.edge(u, end + random.nextInt(n - end), weight());
+                    } else if (size > 1) {
+                        sink.edge(u, first + random.nextInt(size), weight());
+                    }
+                }
+            }
+        }
+        sink.end();
+    }
+
+    public void powerLaw(int n, int avgDegree, double exponent, boolean acyclic, EdgeSink sink) throws IOException {
+        if (exponent <= 1) throw new IllegalArgumentException("exponent must be > 1");
+        double scale = avgDegree * (exponent - 1) / exponent;
+
+        sink.begin(n, 0);
+        for (int u = 0; u < n; u++) {
+            int candidates = acyclic ? n - u - 1 : n - 1;
+            if (candidates <= 0) continue;
+            double pareto = scale / Math.pow(1.0 - random.nextDouble(), 1.0 / exponent);
+            int degree = (int) Math.min(candidates, (long) pareto);
+            for (int k = 0; k < degree; k++) {
+                int v;
+                if (acyclic) {
+                    v = u + 1 + random.nextInt(candidates);
+                } else {
+                    v = random.nextInt(n - 1);
+                    if (v >= u) v++;
+                }
+                sink.edge(u, v, weight());
+            }
+        }
+        sink.end();
+    }
+
+    private int[] componentStarts(int n, int components, double sizeExponent) {
+        double total = 0;
+        for (int c = 0; c < components; c++) total += Math.pow(c + 1, -sizeExponent);
+
+        int[] size = new int[components];
+        long assigned = 0;
+        for (int c = 0; c < components; c++) {
+            size[c] = Math.max(1, (int) (n * Math.pow(c + 1, -sizeExponent) / total));
+            assigned += size[c];
+        }
+        for (int c = 0; assigned > n; c = (c + 1) % components) {
+            if (size[c] > 1) {
+                size[c]--;
+                assigned--;
+            }
+        }
+        // the loop above leaves 0 <= n - assigned <= n, so the difference fits an int
+        size[0] += (int) (n - assigned);
+
+        for (int i = components - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = size[i];
+            size[i] = size[j];
+            size[j] = tmp;
+        }
+
+        int[] start = new int[components + 1];
+        for (int c = 0; c < components; c++) start[c + 1] = start[c] + size[c];
+        return start;
+    }
+
+    private int weight() {
+        long span = (long) maxWeight - minWeight + 1;
+        // ranges wider than Integer.MAX_VALUE are drawn as longs; narrower ones keep the int draw so seeded output is unchanged
+        if (span > Integer.MAX_VALUE) return (int) random.nextLong(minWeight, (long) maxWeight + 1);
+        return minWeight + random.nextInt((int) span);
+    }
+
+    public static class ArraySink implements EdgeSink {
+        private int n, source, m;
+        private int[] from = new int[16], to = new int[16], weights = new int[16];
+
+        @Override
+        public void begin(int n, int source) {
+            this.n = n;
+            this.source = source;
+            this.m = 0;
+        }
+
+        @Override
+        public void edge(int u, int v, int w) {
+            if (m == from.length) {
+                int capacity = m + (m >> 1);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            from[m] = u;
+            to[m] = v;
+            weights[m] = w;
+            m++;
+        }
+
+        @Override
+        public void end() {
+        }
+
+        public GraphLoader.GraphData toGraphData() {
+            return new GraphLoader.GraphData(n, source, m, from, to, weights);
+        }
+    }
+
+    public static class JsonSink implements EdgeSink, Closeable {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private int length = 0;
+        private long edges = 0;
+        private int source;
+
+        public JsonSink(Path path) throws IOException {
+            this.out = Files.newOutputStream(path);
+        }
+
+        @Override
+        public void begin(int n, int source) throws IOException {
+            this.source = source;
+            write("{\n  \"directed\": true,\n  \"n\": ");
+            write(n);
+            write(",\n  \"edges\": [\n");
+        }
+
+        @Override
+        public void edge(int u, int v, int w) throws IOException {
+            if (edges++ > 0) write(",\n");
+            write("    {\"u\": ");
+            write(u);
+            write(", \"v\": ");
+            write(v);
+            write(", \"w\": ");
+            write(w);
+            write("}");
+        }
+
+        @Override
+        public void end() throws IOException {
+            write(edges > 0 ? "\n  ],\n  \"source\": " : "  ],\n  \"source\": ");
+            write(source);
+            write(",\n  \"weight_model\": \"edge\"\n}\n");
+            flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            out.close();
+        }
+
+        private void write(String s) throws IOException {
+            if (length + s.length() > buffer.length) flush();
+            for (int i = 0; i < s.length(); i++) buffer[length++] = (byte) s.charAt(i);
+        }
+
+        private void write(int value) throws IOException {
+            if (length + 11 > buffer.length) flush();
+            if (value == Integer.MIN_VALUE) {
+                write(Integer.toString(value));
+                return;
+            }
+            if (value < 0) {
+                buffer[length++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (int x = value; x >= 10; x /= 10) digits++;
+            for (int i = length + digits - 1; i >= length; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.out.println("Usage: GraphGenerator <SPARSE_DAG|DENSE_DAG|SCC_CLUSTERS|CHAIN|POWER_LAW> <n> <avgDegree> <seed> <output.json|output.csrg>");
+            return;
+        }
+        Shape shape = Shape.valueOf(args[0]);
+        int n = Integer.parseInt(args[1]);
+        int avgDegree = Integer.parseInt(args[2]);
+        long seed = Long.parseLong(args[3]);
+        Path output = Paths.get(args[4]);
+        if (args[4].endsWith(BinaryGraphFile.EXTENSION)) {
+            try (ExternalCSRBuilder sink = new ExternalCSRBuilder(output)) {
+                new GraphGenerator(seed).generate(shape, n, avgDegree, sink);
+            }
+        } else {
+            try (JsonSink sink = new JsonSink(output)) {
+                new GraphGenerator(seed).generate(shape, n, avgDegree, sink);
+            }
+        }
+        System.out.println("Generated: " + args[4]);
+    }
+}
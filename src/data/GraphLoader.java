@@ -1,58 +1,97 @@
 package data;
 
+import graph.CSRGraph;
 import java.io.*;
-import java.nio.file.*;
 import java.util.*;
-import java.util.regex.*;
 
 public class GraphLoader {
     public static GraphData loadGraph(String filePath) throws IOException {
-        String content = new String(Files.readAllBytes(Paths.get(filePath)));
-        return parseGraph(content);
-    }
-
-    private static GraphData parseGraph(String json) {
-        int n = extractInt(json, "\"n\":");
-        int source = extractInt(json, "\"source\":");
-        
-        List<int[]> edges = new ArrayList<>();
-        Pattern edgePattern = Pattern.compile("\\{\"u\":\\s*(\\d+)\\s*,\\s*\"v\":\\s*(\\d+)\\s*,\\s*\"w\":\\s*(\\d+)\\s*\\}");
-        Matcher matcher = edgePattern.matcher(json);
-        
-        while (matcher.find()) {
-            int u = Integer.parseInt(matcher.group(1));
-            int v = Integer.parseInt(matcher.group(2));
-            int w = Integer.parseInt(matcher.group(3));
-            edges.add(new int[]{u, v, w});
-        }
-        
-        return new GraphData(n, edges, source);
-    }
-
-    private static int extractInt(String json, String key) {
-        int start = json.indexOf(key);
-        if (start == -1) return 0;
-        start += key.length();
-        while (start < json.length() && (json.charAt(start) == ' ' || json.charAt(start) == ':')) {
-            start++;
-        }
-        int end = start;
-        while (end < json.length() && Character.isDigit(json.charAt(end))) {
-            end++;
-        }
-        if (end == start) return 0;
-        return Integer.parseInt(json.substring(start, end));
+        return StreamingGraphLoader.load(filePath);
     }
 
     public static class GraphData {
         public final int n;
         public final List<int[]> edges;
         public final int source;
+        public final int edgeCount;
+        public final int[] from;
+        public final int[] to;
+        public final int[] weights;
+        public final long[] longWeights;
+        public final long minWeight;
+        public final long maxWeight;
 
         public GraphData(int n, List<int[]> edges, int source) {
             this.n = n;
             this.edges = edges;
             this.source = source;
+            this.edgeCount = edges.size();
+            this.from = new int[edgeCount];
+            this.to = new int[edgeCount];
+            this.weights = new int[edgeCount];
+            this.longWeights = null;
+            long min = edgeCount == 0 ? 0 : Long.MAX_VALUE, max = edgeCount == 0 ? 0 : Long.MIN_VALUE;
+            for (int i = 0; i < edgeCount; i++) {
+                int[] edge = edges.get(i);
+                from[i] = edge[0];
+                to[i] = edge[1];
+                weights[i] = edge[2];
+                min = Math.min(min, edge[2]);
+                max = Math.max(max, edge[2]);
+            }
+            this.minWeight = min;
+            this.maxWeight = max;
+        }
+
+        public GraphData(int n, int source, int edgeCount, int[] from, int[] to, int[] weights) {
+            this(n, source, edgeCount, from, to, weights, null, minOf(weights, edgeCount), maxOf(weights, edgeCount));
+        }
+
+        public GraphData(int n, int source, int edgeCount, int[] from, int[] to, int[] weights,
+                         long[] longWeights, long minWeight, long maxWeight) {
+            this.n = n;
+            this.source = source;
+            this.edgeCount = edgeCount;
+            this.from = from;
+            this.to = to;
+            this.weights = weights;
+            this.longWeights = longWeights;
+            this.minWeight = minWeight;
+            this.maxWeight = maxWeight;
+            this.edges = new AbstractList<int[]>() {
+                @Override
+                public int[] get(int i) {
+                    Objects.checkIndex(i, edgeCount);
+                    if (weights == null) throw new IllegalStateException("Graph has 64-bit weights; use longWeights");
+                    return new int[]{from[i], to[i], weights[i]};
+                }
+
+                @Override
+                public int size() {
+                    return edgeCount;
+                }
+            };
+        }
+
+        public boolean hasLongWeights() {
+            return longWeights != null;
+        }
+
+        public boolean intPathSumsFit() {
+            if (longWeights != null) return false;
+            return CSRGraph.intPathSumsFit(n, Math.max(Math.abs(minWeight), Math.abs(maxWeight)));
+        }
+
+        private static long minOf(int[] values, int count) {
+            long min = count == 0 ? 0 : Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) min = Math.min(min, values[i]);
+            return min;
+        }
+
+        private static long maxOf(int[] values, int count) {
+            long max = count == 0 ? 0 : Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) max = Math.max(max, values[i]);
+            return max;
         }
     }
 }
@@ -0,0 +1,41 @@
+package data;
+
+import graph.CSRGraph;
+import java.nio.*;
+
+public class MappedCSRGraph {
+    public final int n;
+    public final int edgeCount;
+    public final int source;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+
+    MappedCSRGraph(int n, int edgeCount, int source, IntBuffer offsets, IntBuffer targets, IntBuffer weights) {
+        this.n = n;
+        this.edgeCount = edgeCount;
+        this.source = source;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int offset(int u) { return offsets.get(u); }
+    public int target(int e) { return targets.get(e); }
+    public int weight(int e) { return weights.get(e); }
+    public int outDegree(int u) { return offsets.get(u + 1) - offsets.get(u); }
+
+    public IntBuffer getOffsets() { return offsets.duplicate(); }
+    public IntBuffer getTargets() { return targets.duplicate(); }
+    public IntBuffer getWeights() { return weights.duplicate(); }
+
+    public CSRGraph toCSRGraph() {
+        int[] o = new int[n + 1];
+        int[] t = new int[edgeCount];
+        int[] w = new int[edgeCount];
+        offsets.duplicate().get(o);
+        targets.duplicate().get(t);
+        weights.duplicate().get(w);
+        return new CSRGraph(n, o, t, w);
+    }
+}
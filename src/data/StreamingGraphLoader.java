@@ -0,0 +1,309 @@
+package data;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class StreamingGraphLoader {
+    private static final long WINDOW_SIZE = 64L << 20;
+    private static final byte[] KEY_N = {'n'};
+    private static final byte[] KEY_SOURCE = {'s', 'o', 'u', 'r', 'c', 'e'};
+    private static final byte[] KEY_EDGES = {'e', 'd', 'g', 'e', 's'};
+    private static final byte[] KEY_U = {'u'};
+    private static final byte[] KEY_V = {'v'};
+    private static final byte[] KEY_W = {'w'};
+
+    public interface EdgeVisitor {
+        void edge(int u, int v, int w) throws IOException;
+    }
+
+    public static class Header {
+        public final int n;
+        public final int source;
+        public final long edgeCount;
+
+        Header(int n, int source, long edgeCount) {
+            this.n = n;
+            this.source = source;
+            this.edgeCount = edgeCount;
+        }
+    }
+
+    private final MappedReader in;
+    private final EdgeVisitor visitor;
+    private long visited;
+    private final byte[] key = new byte[64];
+    private int keyLength;
+
+    private int n;
+    private int source;
+    private int m;
+    private int[] from, to, weights;
+    private long[] longWeights;
+    private long minWeight = Long.MAX_VALUE;
+    private long maxWeight = Long.MIN_VALUE;
+
+    private StreamingGraphLoader(MappedReader in, long fileSize, EdgeVisitor visitor) {
+        this.in = in;
+        this.visitor = visitor;
+        if (visitor != null) return;
+        int capacity = (int) Math.min(Math.max(16, fileSize / 24), Integer.MAX_VALUE - 8);
+        from = new int[capacity];
+        to = new int[capacity];
+        weights = new int[capacity];
+    }
+
+    public static GraphLoader.GraphData load(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            StreamingGraphLoader loader = new StreamingGraphLoader(new MappedReader(channel), channel.size(), null);
+            loader.parseDocument();
+            if (loader.m == 0) loader.minWeight = loader.maxWeight = 0;
+            return new GraphLoader.GraphData(loader.n, loader.source, loader.m, loader.from, loader.to,
+                loader.weights, loader.longWeights, loader.minWeight, loader.maxWeight);
+        }
+    }
+
+    public static Header stream(String filePath, EdgeVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            StreamingGraphLoader loader = new StreamingGraphLoader(new MappedReader(channel), channel.size(), visitor);
+            loader.parseDocument();
+            return new Header(loader.n, loader.source, loader.visited);
+        }
+    }
+
+    private void parseDocument() throws IOException {
+        expect('{');
+        if (skipWhitespace() == '}') {
+            in.next();
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs(KEY_N)) {
+                n = toInt(readNumber(), "n");
+            } else if (keyIs(KEY_SOURCE)) {
+                source = toInt(readNumber(), "source");
+            } else if (keyIs(KEY_EDGES)) {
+                parseEdges();
+            } else {
+                skipValue();
+            }
+        } while (nextMember('}'));
+    }
+
+    private void parseEdges() throws IOException {
+        expect('[');
+        if (skipWhitespace() == ']') {
+            in.next();
+            return;
+        }
+        do {
+            parseEdge();
+        } while (nextMember(']'));
+    }
+
+    private void parseEdge() throws IOException {
+        int u = 0, v = 0;
+        long w = 0;
+        expect('{');
+        if (skipWhitespace() != '}') {
+            do {
+                readKey();
+                expect(':');
+                if (keyIs(KEY_U)) {
+                    u = toInt(readNumber(), "u");
+                } else if (keyIs(KEY_V)) {
+                    v = toInt(readNumber(), "v");
+                } else if (keyIs(KEY_W)) {
+                    w = readNumber();
+                } else {
+                    skipValue();
+                }
+            } while (nextMember('}'));
+        } else {
+            in.next();
+        }
+
+        if (visitor != null) {
+            visitor.edge(u, v, toInt(w, "w"));
+            visited++;
+            return;
+        }
+        if (m == from.length) {
+            int capacity = from.length + (from.length >> 1);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            if (longWeights != null) longWeights = Arrays.copyOf(longWeights, capacity);
+            else weights = Arrays.copyOf(weights, capacity);
+        }
+        if (longWeights == null && (w < Integer.MIN_VALUE || w > Integer.MAX_VALUE)) {
+            longWeights = new long[from.length];
+            for (int i = 0; i < m; i++) longWeights[i] = weights[i];
+            weights = null;
+        }
+        from[m] = u;
+        to[m] = v;
+        if (longWeights != null) longWeights[m] = w;
+        else weights[m] = (int) w;
+        minWeight = Math.min(minWeight, w);
+        maxWeight = Math.max(maxWeight, w);
+        m++;
+    }
+
+    private boolean nextMember(char close) throws IOException {
+        int c = skipWhitespace();
+        in.next();
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw error("expected ',' or '" + close + "'", c);
+    }
+
+    private void readKey() throws IOException {
+        expect('"');
+        keyLength = 0;
+        int c;
+        while ((c = in.next()) != '"') {
+            if (c == -1) throw error("unterminated key", c);
+            if (c == '\\') c = in.next();
+            if (keyLength < key.length) key[keyLength] = (byte) c;
+            keyLength++;
+        }
+    }
+
+    private boolean keyIs(byte[] expected) {
+        if (keyLength != expected.length) return false;
+        for (int i = 0; i < keyLength; i++) {
+            if (key[i] != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private long readNumber() throws IOException {
+        int c = skipWhitespace();
+        boolean negative = false;
+        if (c == '-') {
+            negative = true;
+            in.next();
+            c = in.peek();
+        }
+        if (c < '0' || c > '9') throw error("expected integer", c);
+        // accumulate as a negative magnitude so Long.MIN_VALUE is representable
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            if (value < Long.MIN_VALUE / 10) throw new IOException("Integer overflow at byte " + in.position());
+            value *= 10;
+            int digit = c - '0';
+            if (value < Long.MIN_VALUE + digit) throw new IOException("Integer overflow at byte " + in.position());
+            value -= digit;
+            in.next();
+            c = in.peek();
+        }
+        if (c == '.' || c == 'e' || c == 'E') throw error("expected integer", c);
+        if (!negative && value == Long.MIN_VALUE) throw new IOException("Integer overflow at byte " + in.position());
+        return negative ? value : -value;
+    }
+
+    private int toInt(long value, String field) throws IOException {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IOException("Value of \"" + field + "\" out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    private void skipValue() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            in.next();
+            while ((c = in.next()) != '"') {
+                if (c == -1) throw error("unterminated string", c);
+                if (c == '\\') in.next();
+            }
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = in.next();
+                if (c == '"') {
+                    while ((c = in.next()) != '"') {
+                        if (c == -1) throw error("unterminated string", c);
+                        if (c == '\\') in.next();
+                    }
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                } else if (c == -1) {
+                    throw error("unterminated value", c);
+                }
+            } while (depth > 0);
+        } else {
+            while (c != ',' && c != '}' && c != ']' && c != -1 && !isWhitespace(c)) {
+                in.next();
+                c = in.peek();
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = skipWhitespace();
+        if (c != expected) throw error("expected '" + expected + "'", c);
+        in.next();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = in.peek();
+        while (isWhitespace(c)) {
+            in.next();
+            c = in.peek();
+        }
+        return c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private IOException error(String message, int found) {
+        String got = found == -1 ? "end of file" : "'" + (char) found + "'";
+        return new IOException("Malformed graph JSON at byte " + in.position() + ": " + message + ", found " + got);
+    }
+
+    private static class MappedReader {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        int peek() throws IOException {
+            if (!window.hasRemaining()) {
+                long next = windowStart + window.limit();
+                if (next >= size) return -1;
+                map(next);
+            }
+            return window.get(window.position()) & 0xFF;
+        }
+
+        int next() throws IOException {
+            int c = peek();
+            if (c != -1) window.position(window.position() + 1);
+            return c;
+        }
+
+        long position() {
+            return windowStart + window.position();
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package graph;
+
+import java.util.*;
+
+public class CSRGraph {
+    public final int n;
+    public final int[] offsets;
+    public final int[] targets;
+    public final int[] weights;
+    public final long[] longWeights;
+
+    public CSRGraph(int n, int[] offsets, int[] targets, int[] weights) {
+        this(n, offsets, targets, weights, null);
+    }
+
+    public CSRGraph(int n, int[] offsets, int[] targets, int[] weights, long[] longWeights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.longWeights = longWeights;
+    }
+
+    public static CSRGraph fromEdges(int n, List<int[]> edges) {
+        int m = edges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] w = new int[m];
+        for (int i = 0; i < m; i++) {
+            int[] edge = edges.get(i);
+            from[i] = edge[0];
+            to[i] = edge[1];
+            w[i] = edge[2];
+        }
+        return fromArrays(n, m, from, to, w);
+    }
+
+    public static CSRGraph fromArrays(int n, int m, int[] from, int[] to, int[] w) {
+        return fromArrays(n, m, from, to, w, null);
+    }
+
+    public static CSRGraph fromArrays(int n, int m, int[] from, int[] to, long[] w) {
+        return fromArrays(n, m, from, to, null, w);
+    }
+
+    private static CSRGraph fromArrays(int n, int m, int[] from, int[] to, int[] w, long[] longW) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) offsets[from[i] + 1]++;
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int[] cursor = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        int[] weights = w != null ? new int[m] : null;
+        long[] longWeights = longW != null ? new long[m] : null;
+        for (int i = 0; i < m; i++) {
+            int pos = cursor[from[i]]++;
+            targets[pos] = to[i];
+            if (weights != null) weights[pos] = w[i];
+            else longWeights[pos] = longW[i];
+        }
+        return new CSRGraph(n, offsets, targets, weights, longWeights);
+    }
+
+    public CSRGraph reverse() {
+        int m = edgeCount();
+        int[] revOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) revOffsets[targets[e] + 1]++;
+        for (int v = 0; v < n; v++) revOffsets[v + 1] += revOffsets[v];
+
+        int[] cursor = Arrays.copyOf(revOffsets, n);
+        int[] revTargets = new int[m];
+        int[] revWeights = weights != null ? new int[m] : null;
+        long[] revLongWeights = longWeights != null ? new long[m] : null;
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int pos = cursor[targets[e]]++;
+                revTargets[pos] = u;
+                if (revWeights != null) revWeights[pos] = weights[e];
+                else revLongWeights[pos] = longWeights[e];
+            }
+        }
+        return new CSRGraph(n, revOffsets, revTargets, revWeights, revLongWeights);
+    }
+
+    public boolean hasLongWeights() {
+        return longWeights != null;
+    }
+
+    public long weight(int e) {
+        return longWeights != null ? longWeights[e] : weights[e];
+    }
+
+    public boolean intPathSumsFit() {
+        if (longWeights != null) return false;
+        long maxAbs = 0;
+        for (int e = 0; e < edgeCount(); e++) maxAbs = Math.max(maxAbs, Math.abs((long) weights[e]));
+        return intPathSumsFit(n, maxAbs);
+    }
+
+    public static boolean intPathSumsFit(int n, long maxAbsWeight) {
+        return maxAbsWeight == 0 || Math.max(n - 1, 1) <= (Integer.MAX_VALUE - 1L) / maxAbsWeight;
+    }
+
+    public int[] intWeights() {
+        if (weights == null) throw new IllegalStateException("Graph has 64-bit weights; use the long-weight path algorithms");
+        return weights;
+    }
+
+    public int size() { return n; }
+    public int edgeCount() { return offsets[n]; }
+    public int outDegree(int u) { return offsets[u + 1] - offsets[u]; }
+}
@@ -1,61 +1,79 @@
 package graph.dagsp;
 
-import metrics.AlgorithmMetrics;
+import graph.CSRGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
 import java.util.*;
 
 public class DAGLongestPath {
-    public static int[] longestPath(int src, List<List<int[]>> adj, List<Integer> topo) {
-        return longestPath(src, adj, topo, null);
+    public static int[] longestPath(int src, CSRGraph graph, List<Integer> topo) {
+        return longestPath(src, graph, topo, null);
     }
 
-    public static int[] longestPath(int src, List<List<int[]>> adj, List<Integer> topo, AlgorithmMetrics metrics) {
-        int n = adj.size();
+    public static int[] longestPath(int src, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        return longestPath(src, graph, topo, metrics, null);
+    }
+
+    public static int[] longestPath(int src, CSRGraph graph, List<Integer> topo, Metrics metrics, int[] parent) {
+        Counter relaxations = NoOpMetrics.orNoOp(metrics).counter("relaxations");
+        int n = graph.n;
+        int[] weights = graph.intWeights();
         int[] dist = new int[n];
         Arrays.fill(dist, Integer.MIN_VALUE);
         dist[src] = 0;
+        if (parent != null) Arrays.fill(parent, 0, n, -1);
 
         for (int u : topo) {
             if (dist[u] == Integer.MIN_VALUE) continue;
-            for (int[] edge : adj.get(u)) {
-                int v = edge[0], w = edge[1];
-                if (metrics != null) metrics.count("relaxations");
-                if (dist[u] + w > dist[v])
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e], w = weights[e];
+                relaxations.increment();
+                if (dist[u] + w > dist[v]) {
                     dist[v] = dist[u] + w;
+                    if (parent != null) parent[v] = u;
+                }
             }
         }
         return dist;
     }
 
-    public static List<Integer> reconstructPath(int src, int target, int[] dist, List<List<int[]>> adj, List<Integer> topo) {
-        if (dist[target] == Integer.MIN_VALUE) return null;
-        
-        List<Integer> path = new ArrayList<>();
-        int current = target;
-        
-        while (current != src) {
-            path.add(0, current);
-            boolean found = false;
-            for (int u : topo) {
-                if (u == current) continue;
-                for (int[] edge : adj.get(u)) {
-                    int v = edge[0], w = edge[1];
-                    if (v == current && dist[u] + w == dist[current]) {
-                        current = u;
-                        found = true;
-                        break;
-                    }
+    public static LongDistances longestPathLong(int src, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        Counter relaxations = NoOpMetrics.orNoOp(metrics).counter("relaxations");
+        int n = graph.n;
+        long[] dist = new long[n];
+        BitSet reachable = new BitSet(n);
+        int[] parent = new int[n];
+        Arrays.fill(parent, -1);
+        reachable.set(src);
+
+        for (int u : topo) {
+            if (!reachable.get(u)) continue;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                long candidate = Math.addExact(dist[u], graph.weight(e));
+                relaxations.increment();
+                if (!reachable.get(v) || candidate > dist[v]) {
+                    reachable.set(v);
+                    dist[v] = candidate;
+                    parent[v] = u;
                 }
-                if (found) break;
             }
-            if (!found) break;
         }
-        
-        path.add(0, src);
-        return path;
+        return new LongDistances(src, dist, reachable, parent);
     }
 
-    public static CriticalPathResult findCriticalPath(int src, List<List<int[]>> adj, List<Integer> topo, AlgorithmMetrics metrics) {
-        int[] dist = longestPath(src, adj, topo, metrics);
+    public static int[] reconstructPath(int src, int target, int[] parent) {
+        return DAGShortestPath.reconstructPath(src, target, parent);
+    }
+
+    public static int reconstructPath(int src, int target, int[] parent, int[] path) {
+        return DAGShortestPath.reconstructPath(src, target, parent, path);
+    }
+
+    public static LongestPathResult analyze(int src, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        int[] parent = new int[graph.n];
+        int[] dist = longestPath(src, graph, topo, metrics, parent);
         int maxDist = Integer.MIN_VALUE;
         int target = -1;
         
@@ -66,10 +84,95 @@ public class DAGLongestPath {
             }
         }
         
-        if (target == -1) return null;
-        
-        List<Integer> path = reconstructPath(src, target, dist, adj, topo);
-        return new CriticalPathResult(path, maxDist);
+        return new LongestPathResult(src, graph, topo, dist, parent, target);
+    }
+
+    public static CriticalPathResult findCriticalPath(int src, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        return analyze(src, graph, topo, metrics).toCriticalPathResult();
+    }
+
+    public static class LongestPathResult {
+        public final int source;
+        public final int[] dist;
+        public final int[] parent;
+        public final int target;
+        private final CSRGraph graph;
+        private final List<Integer> topo;
+        private int[] criticalPath;
+        private int[] latest;
+
+        LongestPathResult(int source, CSRGraph graph, List<Integer> topo, int[] dist, int[] parent, int target) {
+            this.source = source;
+            this.graph = graph;
+            this.topo = topo;
+            this.dist = dist;
+            this.parent = parent;
+            this.target = target;
+        }
+
+        public boolean hasCriticalPath() {
+            return target != -1;
+        }
+
+        public int length() {
+            return target == -1 ? Integer.MIN_VALUE : dist[target];
+        }
+
+        public int[] criticalPath() {
+            if (criticalPath == null && target != -1) {
+                criticalPath = reconstructPath(source, target, parent);
+            }
+            return criticalPath;
+        }
+
+        public int[] pathTo(int v) {
+            return reconstructPath(source, v, parent);
+        }
+
+        public boolean isReachable(int v) {
+            return dist[v] != Integer.MIN_VALUE;
+        }
+
+        public int earliestStart(int v) {
+            return dist[v];
+        }
+
+        public int latestStart(int v) {
+            if (latest == null) latest = computeLatest();
+            return latest[v];
+        }
+
+        public int slack(int v) {
+            if (!isReachable(v)) return Integer.MIN_VALUE;
+            return latestStart(v) - dist[v];
+        }
+
+        private int[] computeLatest() {
+            int[] weights = graph.intWeights();
+            int[] late = new int[graph.n];
+            Arrays.fill(late, Integer.MIN_VALUE);
+            int end = length();
+            ListIterator<Integer> it = topo.listIterator(topo.size());
+            while (it.hasPrevious()) {
+                int u = it.previous();
+                if (!isReachable(u)) continue;
+                int best = end;
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    if (late[v] != Integer.MIN_VALUE) best = Math.min(best, late[v] - weights[e]);
+                }
+                late[u] = best;
+            }
+            return late;
+        }
+
+        public CriticalPathResult toCriticalPathResult() {
+            if (target == -1) return null;
+            int[] pathNodes = criticalPath();
+            List<Integer> path = new ArrayList<>(pathNodes.length);
+            for (int node : pathNodes) path.add(node);
+            return new CriticalPathResult(path, dist[target]);
+        }
     }
 
     public static class CriticalPathResult {
@@ -1,56 +1,176 @@
 package graph.dagsp;
 
-import metrics.AlgorithmMetrics;
+import graph.CSRGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class DAGShortestPath {
-    public static int[] shortestPath(int src, List<List<int[]>> adj, List<Integer> topo) {
-        return shortestPath(src, adj, topo, null);
+    private static final int SOURCE_CHUNK = 16;
+
+    public static int[] shortestPath(int src, CSRGraph graph, List<Integer> topo) {
+        return shortestPath(src, graph, topo, null);
+    }
+
+    public static int[] shortestPath(int src, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        return shortestPath(src, graph, topo, metrics, null);
     }
 
-    public static int[] shortestPath(int src, List<List<int[]>> adj, List<Integer> topo, AlgorithmMetrics metrics) {
-        int n = adj.size();
+    public static int[] shortestPath(int src, CSRGraph graph, List<Integer> topo, Metrics metrics, int[] parent) {
+        Counter relaxations = NoOpMetrics.orNoOp(metrics).counter("relaxations");
+        int n = graph.n;
+        int[] weights = graph.intWeights();
         int[] dist = new int[n];
         Arrays.fill(dist, Integer.MAX_VALUE);
         dist[src] = 0;
+        if (parent != null) Arrays.fill(parent, 0, n, -1);
 
         for (int u : topo) {
             if (dist[u] == Integer.MAX_VALUE) continue;
-            for (int[] edge : adj.get(u)) {
-                int v = edge[0], w = edge[1];
-                if (metrics != null) metrics.count("relaxations");
-                if (dist[u] + w < dist[v])
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e], w = weights[e];
+                relaxations.increment();
+                if (dist[u] + w < dist[v]) {
                     dist[v] = dist[u] + w;
+                    if (parent != null) parent[v] = u;
+                }
+            }
+        }
+        return dist;
+    }
+
+    public static LongDistances shortestPathLong(int src, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        Counter relaxations = NoOpMetrics.orNoOp(metrics).counter("relaxations");
+        int n = graph.n;
+        long[] dist = new long[n];
+        BitSet reachable = new BitSet(n);
+        int[] parent = new int[n];
+        Arrays.fill(parent, -1);
+        reachable.set(src);
+
+        for (int u : topo) {
+            if (!reachable.get(u)) continue;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                long candidate = Math.addExact(dist[u], graph.weight(e));
+                relaxations.increment();
+                if (!reachable.get(v) || candidate < dist[v]) {
+                    reachable.set(v);
+                    dist[v] = candidate;
+                    parent[v] = u;
+                }
             }
         }
+        return new LongDistances(src, dist, reachable, parent);
+    }
+
+    public static int[] shortestPaths(int[] sources, CSRGraph graph, List<Integer> topo, Metrics metrics) {
+        return shortestPaths(sources, graph, topo, metrics, ForkJoinPool.commonPool());
+    }
+
+    public static int[] shortestPaths(int[] sources, CSRGraph graph, List<Integer> topo, Metrics metrics, ForkJoinPool pool) {
+        int n = graph.n;
+        graph.intWeights();
+        if ((long) sources.length * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Distance block too large: " + sources.length + " sources x " + n + " vertices");
+        }
+        int[] order = new int[topo.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topo.get(i);
+
+        int[] dist = new int[sources.length * n];
+        long relaxations = pool.invoke(new SourceBatch(sources, 0, sources.length, graph, order, dist));
+        NoOpMetrics.orNoOp(metrics).counter("relaxations").add(relaxations);
         return dist;
     }
 
-    public static List<Integer> reconstructPath(int src, int target, int[] dist, List<List<int[]>> adj, List<Integer> topo) {
-        if (dist[target] == Integer.MAX_VALUE) return null;
-        
-        List<Integer> path = new ArrayList<>();
-        int current = target;
-        
-        while (current != src) {
-            path.add(0, current);
-            boolean found = false;
-            for (int u : topo) {
-                if (u == current) continue;
-                for (int[] edge : adj.get(u)) {
-                    int v = edge[0], w = edge[1];
-                    if (v == current && dist[u] + w == dist[current]) {
-                        current = u;
-                        found = true;
-                        break;
+    @SuppressWarnings("serial")
+    private static class SourceBatch extends RecursiveTask<Long> {
+        private final int[] sources;
+        private final int from, to;
+        private final CSRGraph graph;
+        private final int[] order;
+        private final int[] dist;
+
+        SourceBatch(int[] sources, int from, int to, CSRGraph graph, int[] order, int[] dist) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.graph = graph;
+            this.order = order;
+            this.dist = dist;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= SOURCE_CHUNK) return sweep();
+            int mid = from + (to - from) / 2 / SOURCE_CHUNK * SOURCE_CHUNK;
+            if (mid == from) mid = from + SOURCE_CHUNK;
+            SourceBatch left = new SourceBatch(sources, from, mid, graph, order, dist);
+            SourceBatch right = new SourceBatch(sources, mid, to, graph, order, dist);
+            invokeAll(left, right);
+            return left.join() + right.join();
+        }
+
+        private long sweep() {
+            int n = graph.n;
+            int[] weights = graph.weights;
+            int width = to - from;
+            int[] block = new int[n * width];
+            Arrays.fill(block, Integer.MAX_VALUE);
+            for (int k = 0; k < width; k++) block[sources[from + k] * width + k] = 0;
+
+            long relaxations = 0;
+            for (int u : order) {
+                int ub = u * width;
+                int reachable = 0;
+                for (int k = 0; k < width; k++) {
+                    if (block[ub + k] != Integer.MAX_VALUE) reachable++;
+                }
+                if (reachable == 0) continue;
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int vb = graph.targets[e] * width, w = weights[e];
+                    relaxations += reachable;
+                    for (int k = 0; k < width; k++) {
+                        int du = block[ub + k];
+                        if (du != Integer.MAX_VALUE && du + w < block[vb + k]) block[vb + k] = du + w;
                     }
                 }
-                if (found) break;
             }
-            if (!found) break;
+
+            for (int k = 0; k < width; k++) {
+                int row = (from + k) * n;
+                for (int v = 0; v < n; v++) dist[row + v] = block[v * width + k];
+            }
+            return relaxations;
         }
-        
-        path.add(0, src);
+    }
+
+    public static int[] reconstructPath(int src, int target, int[] parent) {
+        int length = pathLength(src, target, parent);
+        if (length == 0) return null;
+        int[] path = new int[length];
+        reconstructPath(src, target, parent, path);
         return path;
     }
+
+    public static int reconstructPath(int src, int target, int[] parent, int[] path) {
+        int length = pathLength(src, target, parent);
+        int v = target;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = v;
+            v = parent[v];
+        }
+        return length;
+    }
+
+    private static int pathLength(int src, int target, int[] parent) {
+        int length = 1;
+        for (int v = target; v != src; v = parent[v]) {
+            if (parent[v] == -1) return 0;
+            length++;
+        }
+        return length;
+    }
 }
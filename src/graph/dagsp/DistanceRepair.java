@@ -0,0 +1,166 @@
+package graph.dagsp;
+
+import graph.CSRGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+
+public class DistanceRepair {
+    public enum Objective { SHORTEST, LONGEST }
+
+    private final int src;
+    private final CSRGraph graph;
+    private final int[] weights;
+    private final int[] dist;
+    private final int[] parent;
+    private final boolean longest;
+    private final int unreachable;
+    private final int[] order;
+    private final int[] rank;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+    private final int[] edgeSource;
+    private final boolean[] queued;
+    private int[] heap = new int[16];
+    private int heapSize = 0;
+    private final Counter verticesRecomputed, relaxations, distancesChanged;
+
+    public DistanceRepair(int src, CSRGraph graph, List<Integer> topo, int[] dist, int[] parent, Objective objective) {
+        this(src, graph, topo, dist, parent, objective, null);
+    }
+
+    public DistanceRepair(int src, CSRGraph graph, List<Integer> topo, int[] dist, int[] parent,
+                          Objective objective, Metrics metrics) {
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        verticesRecomputed = m.counter("vertices_recomputed");
+        relaxations = m.counter("relaxations");
+        distancesChanged = m.counter("distances_changed");
+        if (!graph.intPathSumsFit()) {
+            throw new IllegalArgumentException("Path sums may overflow int; use the long-weight path algorithms");
+        }
+        // edits go to a private copy of the weights so the caller's graph (and anything built from it) never changes
+        this.src = src;
+        this.weights = graph.intWeights().clone();
+        this.graph = new CSRGraph(graph.n, graph.offsets, graph.targets, weights);
+        this.dist = dist;
+        this.parent = parent;
+        this.longest = objective == Objective.LONGEST;
+        this.unreachable = longest ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+
+        int n = graph.n;
+        order = new int[topo.size()];
+        rank = new int[n];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = topo.get(i);
+            rank[order[i]] = i;
+        }
+
+        int edges = graph.edgeCount();
+        inOffsets = new int[n + 1];
+        inEdges = new int[edges];
+        edgeSource = new int[edges];
+        for (int e = 0; e < edges; e++) inOffsets[graph.targets[e] + 1]++;
+        for (int v = 0; v < n; v++) inOffsets[v + 1] += inOffsets[v];
+        int[] cursor = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                edgeSource[e] = u;
+                inEdges[cursor[graph.targets[e]]++] = e;
+            }
+        }
+        queued = new boolean[n];
+    }
+
+    public static int edgeIndex(CSRGraph graph, int u, int v) {
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+            if (graph.targets[e] == v) return e;
+        }
+        return -1;
+    }
+
+    public int update(int edge, int weight) {
+        return update(new int[]{edge}, new int[]{weight});
+    }
+
+    // the graph with all edits applied so far; it shares this repair's weights and follows later updates
+    public CSRGraph getGraph() {
+        return graph;
+    }
+
+    public int update(int[] edges, int[] newWeights) {
+        if (edges.length != newWeights.length) throw new IllegalArgumentException("edges and newWeights differ in length");
+        for (int i = 0; i < edges.length; i++) {
+            Objects.checkIndex(edges[i], weights.length);
+            if (!CSRGraph.intPathSumsFit(graph.n, Math.abs((long) newWeights[i]))) {
+                throw new IllegalArgumentException("Weight " + newWeights[i] + " on edge " + edges[i] + " may overflow int path sums");
+            }
+        }
+        for (int i = 0; i < edges.length; i++) {
+            int e = edges[i];
+            if (weights[e] == newWeights[i]) continue;
+            weights[e] = newWeights[i];
+            if (dist[edgeSource[e]] != unreachable) enqueue(graph.targets[e]);
+        }
+
+        int changed = 0;
+        while (heapSize > 0) {
+            int v = order[poll()];
+            queued[v] = false;
+            if (recompute(v)) {
+                changed++;
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) enqueue(graph.targets[e]);
+            }
+        }
+        return changed;
+    }
+
+    private boolean recompute(int v) {
+        verticesRecomputed.increment();
+        if (v == src) return false;
+        int best = unreachable, bestParent = -1;
+        for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+            int e = inEdges[i], u = edgeSource[e];
+            relaxations.increment();
+            if (dist[u] == unreachable) continue;
+            int candidate = dist[u] + weights[e];
+            boolean better = longest ? candidate > best : candidate < best;
+            if (better || (candidate == best && bestParent != -1 && rank[u] < rank[bestParent])) {
+                best = candidate;
+                bestParent = u;
+            }
+        }
+        if (parent != null) parent[v] = bestParent;
+        if (best == dist[v]) return false;
+        dist[v] = best;
+        distancesChanged.increment();
+        return true;
+    }
+
+    private void enqueue(int v) {
+        if (queued[v]) return;
+        queued[v] = true;
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        int i = heapSize++, r = rank[v];
+        while (i > 0 && heap[(i - 1) >> 1] > r) {
+            heap[i] = heap[(i - 1) >> 1];
+            i = (i - 1) >> 1;
+        }
+        heap[i] = r;
+    }
+
+    private int poll() {
+        int top = heap[0], last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,356 @@
+package graph.dagsp;
+
+import graph.CSRGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+
+public class KBestPaths {
+    public static final int ANY_SINK = -1;
+
+    private static final int UNKNOWN = -2;
+    private static final int NO_PATH = -3;
+
+    public static Result longest(int src, int target, CSRGraph graph, List<Integer> topo, int k, Metrics metrics) {
+        return new Engine(src, target, graph, topo, true, metrics).run(k);
+    }
+
+    public static Result shortest(int src, int target, CSRGraph graph, List<Integer> topo, int k, Metrics metrics) {
+        return new Engine(src, target, graph, topo, false, metrics).run(k);
+    }
+
+    private static class Engine {
+        private final CSRGraph graph;
+        private final int src, target;
+        private final boolean longest;
+        private final long[] tail;
+        private final int[] next;
+        private final int[] bestSide;
+        private final int[] treeHeap;
+        private final int[][] sides;
+        private int[] climb = new int[16];
+
+        private long[] nodeKey = new long[64];
+        private int[] nodeVertex = new int[64], nodeLeft = new int[64], nodeRight = new int[64], nodeRank = new int[64];
+        private int nodeCount = 0;
+
+        private long[] stateLoss = new long[64];
+        private int[] stateNode = new int[64], stateVertex = new int[64], stateIndex = new int[64], stateParent = new int[64];
+        private int stateCount = 0;
+        private int[] queue = new int[64];
+        private int queueSize = 0;
+        private final Counter heapNodes, statesPushed;
+
+        Engine(int src, int target, CSRGraph graph, List<Integer> topo, boolean longest, Metrics metrics) {
+            int n = graph.n;
+            if (topo.size() != n) throw new IllegalArgumentException("Topological order covers " + topo.size() + " of " + n + " vertices; graph is not a DAG");
+            Metrics m = NoOpMetrics.orNoOp(metrics);
+            heapNodes = m.counter("heap_nodes");
+            statesPushed = m.counter("states_pushed");
+            this.graph = graph;
+            this.src = src;
+            this.target = target;
+            this.longest = longest;
+            tail = new long[n];
+            next = new int[n];
+            bestSide = new int[n];
+            treeHeap = new int[n];
+            sides = new int[n][];
+            Arrays.fill(bestSide, UNKNOWN);
+            Arrays.fill(treeHeap, UNKNOWN);
+
+            ListIterator<Integer> it = topo.listIterator(n);
+            while (it.hasPrevious()) {
+                int v = it.previous();
+                boolean end = target == ANY_SINK ? graph.offsets[v] == graph.offsets[v + 1] : v == target;
+                if (end) {
+                    next[v] = -1;
+                    continue;
+                }
+                next[v] = NO_PATH;
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+                    int u = graph.targets[e];
+                    if (next[u] == NO_PATH) continue;
+                    long candidate = Math.addExact(graph.weight(e), tail[u]);
+                    if (next[v] == NO_PATH || (longest ? candidate > tail[v] : candidate < tail[v])) {
+                        tail[v] = candidate;
+                        next[v] = e;
+                    }
+                }
+            }
+        }
+
+        Result run(int k) {
+            if (k < 1) throw new IllegalArgumentException("k must be >= 1");
+            if (next[src] == NO_PATH) return new Result(this, src, target, new long[0], new int[0]);
+            long[] lengths = new long[k];
+            int[] found = new int[k];
+            int count = 0;
+            lengths[count] = tail[src];
+            found[count++] = -1;
+
+            int root = treeHeap(src);
+            if (root >= 0) pushState(nodeKey[root], root, nodeVertex[root], 0, -1);
+            while (count < k && queueSize > 0) {
+                int s = pollState();
+                lengths[count] = longest ? tail[src] - stateLoss[s] : tail[src] + stateLoss[s];
+                found[count++] = s;
+                expand(s);
+            }
+            heapNodes.add(nodeCount);
+            statesPushed.add(stateCount);
+            return new Result(this, src, target, Arrays.copyOf(lengths, count), Arrays.copyOf(found, count));
+        }
+
+        private void expand(int s) {
+            long total = stateLoss[s];
+            int x = stateVertex[s], i = stateIndex[s], node = stateNode[s], parent = stateParent[s];
+            int[] heap = sides(x);
+            long base = total - loss(x, heap[i]);
+            if (node >= 0) {
+                int left = nodeLeft[node], right = nodeRight[node];
+                if (left >= 0) pushState(base + nodeKey[left], left, nodeVertex[left], 0, parent);
+                if (right >= 0) pushState(base + nodeKey[right], right, nodeVertex[right], 0, parent);
+            }
+            for (int c = 2 * i + 1; c <= 2 * i + 2 && c < heap.length; c++) {
+                pushState(base + loss(x, heap[c]), -1, x, c, parent);
+            }
+            int h = treeHeap(graph.targets[heap[i]]);
+            if (h >= 0) pushState(total + nodeKey[h], h, nodeVertex[h], 0, s);
+        }
+
+        private long loss(int v, int e) {
+            long through = Math.addExact(graph.weight(e), tail[graph.targets[e]]);
+            return longest ? tail[v] - through : through - tail[v];
+        }
+
+        private boolean sideBefore(int v, int a, int b) {
+            long la = loss(v, a), lb = loss(v, b);
+            return la != lb ? la < lb : a < b;
+        }
+
+        private boolean isSide(int v, int e) {
+            return e != next[v] && next[graph.targets[e]] != NO_PATH;
+        }
+
+        private int bestSide(int v) {
+            if (bestSide[v] == UNKNOWN) {
+                int best = -1;
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+                    if (isSide(v, e) && (best == -1 || sideBefore(v, e, best))) best = e;
+                }
+                bestSide[v] = best;
+            }
+            return bestSide[v];
+        }
+
+        private int[] sides(int v) {
+            if (sides[v] == null) {
+                int count = 0;
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) if (isSide(v, e)) count++;
+                int[] heap = new int[count];
+                count = 0;
+                for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) if (isSide(v, e)) heap[count++] = e;
+                for (int i = count / 2 - 1; i >= 0; i--) siftDown(v, heap, i);
+                sides[v] = heap;
+            }
+            return sides[v];
+        }
+
+        private void siftDown(int v, int[] heap, int i) {
+            int e = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heap.length) break;
+                if (child + 1 < heap.length && sideBefore(v, heap[child + 1], heap[child])) child++;
+                if (!sideBefore(v, heap[child], e)) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = e;
+        }
+
+        private int treeHeap(int v) {
+            int depth = 0;
+            int x = v;
+            while (treeHeap[x] == UNKNOWN) {
+                if (next[x] == -1) {
+                    treeHeap[x] = -1;
+                    break;
+                }
+                if (depth == climb.length) climb = Arrays.copyOf(climb, depth * 2);
+                climb[depth++] = x;
+                x = graph.targets[next[x]];
+            }
+            while (depth > 0) {
+                x = climb[--depth];
+                int below = treeHeap[graph.targets[next[x]]];
+                int side = bestSide(x);
+                treeHeap[x] = side < 0 ? below : merge(below, newNode(loss(x, side), x));
+            }
+            return treeHeap[v];
+        }
+
+        private int merge(int a, int b) {
+            if (a < 0) return b;
+            if (b < 0) return a;
+            if (nodeBefore(b, a)) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            int c = copyNode(a);
+            int right = merge(nodeRight[c], b);
+            nodeRight[c] = right;
+            if (rank(nodeLeft[c]) < rank(right)) {
+                nodeRight[c] = nodeLeft[c];
+                nodeLeft[c] = right;
+            }
+            nodeRank[c] = rank(nodeRight[c]) + 1;
+            return c;
+        }
+
+        private boolean nodeBefore(int a, int b) {
+            if (nodeKey[a] != nodeKey[b]) return nodeKey[a] < nodeKey[b];
+            return nodeVertex[a] < nodeVertex[b];
+        }
+
+        private int rank(int node) {
+            return node < 0 ? 0 : nodeRank[node];
+        }
+
+        private int newNode(long key, int vertex) {
+            int c = allocateNode();
+            nodeKey[c] = key;
+            nodeVertex[c] = vertex;
+            nodeLeft[c] = nodeRight[c] = -1;
+            nodeRank[c] = 1;
+            return c;
+        }
+
+        private int copyNode(int a) {
+            int c = allocateNode();
+            nodeKey[c] = nodeKey[a];
+            nodeVertex[c] = nodeVertex[a];
+            nodeLeft[c] = nodeLeft[a];
+            nodeRight[c] = nodeRight[a];
+            nodeRank[c] = nodeRank[a];
+            return c;
+        }
+
+        private int allocateNode() {
+            if (nodeCount == nodeKey.length) {
+                int capacity = nodeCount * 2;
+                nodeKey = Arrays.copyOf(nodeKey, capacity);
+                nodeVertex = Arrays.copyOf(nodeVertex, capacity);
+                nodeLeft = Arrays.copyOf(nodeLeft, capacity);
+                nodeRight = Arrays.copyOf(nodeRight, capacity);
+                nodeRank = Arrays.copyOf(nodeRank, capacity);
+            }
+            return nodeCount++;
+        }
+
+        private void pushState(long loss, int node, int vertex, int index, int parent) {
+            if (stateCount == stateLoss.length) {
+                int capacity = stateCount * 2;
+                stateLoss = Arrays.copyOf(stateLoss, capacity);
+                stateNode = Arrays.copyOf(stateNode, capacity);
+                stateVertex = Arrays.copyOf(stateVertex, capacity);
+                stateIndex = Arrays.copyOf(stateIndex, capacity);
+                stateParent = Arrays.copyOf(stateParent, capacity);
+            }
+            int s = stateCount++;
+            stateLoss[s] = loss;
+            stateNode[s] = node;
+            stateVertex[s] = vertex;
+            stateIndex[s] = index;
+            stateParent[s] = parent;
+
+            if (queueSize == queue.length) queue = Arrays.copyOf(queue, queueSize * 2);
+            int i = queueSize++;
+            while (i > 0 && stateBefore(s, queue[(i - 1) >> 1])) {
+                queue[i] = queue[(i - 1) >> 1];
+                i = (i - 1) >> 1;
+            }
+            queue[i] = s;
+        }
+
+        private int pollState() {
+            int top = queue[0], last = queue[--queueSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= queueSize) break;
+                if (child + 1 < queueSize && stateBefore(queue[child + 1], queue[child])) child++;
+                if (!stateBefore(queue[child], last)) break;
+                queue[i] = queue[child];
+                i = child;
+            }
+            queue[i] = last;
+            return top;
+        }
+
+        private boolean stateBefore(int a, int b) {
+            if (stateLoss[a] != stateLoss[b]) return stateLoss[a] < stateLoss[b];
+            return a < b;
+        }
+
+        int[] path(int state) {
+            int detours = 0;
+            for (int s = state; s >= 0; s = stateParent[s]) detours++;
+            int[] side = new int[detours], sideFrom = new int[detours];
+            for (int s = state; s >= 0; s = stateParent[s]) {
+                side[--detours] = sides(stateVertex[s])[stateIndex[s]];
+                sideFrom[detours] = stateVertex[s];
+            }
+
+            int[] path = new int[16];
+            int size = 0, v = src;
+            path[size++] = v;
+            for (int d = 0; d <= side.length; d++) {
+                int stop = d < side.length ? graph.targets[side[d]] : -1;
+                int from = d < side.length ? sideFrom[d] : -1;
+                while (v != from && next[v] >= 0) {
+                    v = graph.targets[next[v]];
+                    if (size == path.length) path = Arrays.copyOf(path, size * 2);
+                    path[size++] = v;
+                }
+                if (stop < 0) break;
+                v = stop;
+                if (size == path.length) path = Arrays.copyOf(path, size * 2);
+                path[size++] = v;
+            }
+            return Arrays.copyOf(path, size);
+        }
+    }
+
+    public static class Result {
+        public final int source;
+        public final int target;
+        public final long[] lengths;
+        private final Engine engine;
+        private final int[] states;
+
+        Result(Engine engine, int source, int target, long[] lengths, int[] states) {
+            this.engine = engine;
+            this.source = source;
+            this.target = target;
+            this.lengths = lengths;
+            this.states = states;
+        }
+
+        public int count() {
+            return lengths.length;
+        }
+
+        public long length(int i) {
+            return lengths[i];
+        }
+
+        public int[] path(int i) {
+            if (i < 0 || i >= lengths.length) throw new IndexOutOfBoundsException("Path " + i + " of " + lengths.length);
+            return engine.path(states[i]);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package graph.dagsp;
+
+import graph.CSRGraph;
+import graph.topo.ParallelKahnTopo.LevelOrder;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class LevelParallelPaths {
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    public static int[] shortestPath(int src, CSRGraph graph, LevelOrder levels, Metrics metrics) {
+        return relax(src, graph.reverse(), levels, false, null, ForkJoinPool.commonPool(), metrics);
+    }
+
+    public static int[] longestPath(int src, CSRGraph graph, LevelOrder levels, Metrics metrics) {
+        return relax(src, graph.reverse(), levels, true, null, ForkJoinPool.commonPool(), metrics);
+    }
+
+    public static int[] shortestPath(int src, CSRGraph reverse, LevelOrder levels, int[] parent,
+                                     ForkJoinPool pool, Metrics metrics) {
+        return relax(src, reverse, levels, false, parent, pool, metrics);
+    }
+
+    public static int[] longestPath(int src, CSRGraph reverse, LevelOrder levels, int[] parent,
+                                    ForkJoinPool pool, Metrics metrics) {
+        return relax(src, reverse, levels, true, parent, pool, metrics);
+    }
+
+    private static int[] relax(int src, CSRGraph reverse, LevelOrder levels, boolean longest, int[] parent,
+                               ForkJoinPool pool, Metrics metrics) {
+        int n = reverse.n;
+        int unreachable = longest ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int[] dist = new int[n];
+        Arrays.fill(dist, unreachable);
+        dist[src] = 0;
+        if (parent != null) Arrays.fill(parent, 0, n, -1);
+
+        int[] rank = new int[n];
+        for (int i = 0; i < levels.order.length; i++) rank[levels.order[i]] = i;
+
+        LongAdder relaxations = new LongAdder();
+        Pull pull = new Pull(reverse, levels.order, rank, dist, parent, longest, unreachable, relaxations);
+        for (int l = levels.level[src] + 1; l < levels.levelCount(); l++) {
+            int lo = levels.levelStart[l], hi = levels.levelStart[l + 1];
+            if (hi - lo < SEQUENTIAL_THRESHOLD) pull.range(lo, hi);
+            else pool.invoke(new LevelTask(pull, lo, hi));
+        }
+        NoOpMetrics.orNoOp(metrics).counter("relaxations").add(relaxations.sum());
+        return dist;
+    }
+
+    private static class Pull {
+        private final CSRGraph reverse;
+        private final int[] weights;
+        private final int[] order, rank, dist, parent;
+        private final boolean longest;
+        private final int unreachable;
+        private final LongAdder relaxations;
+
+        Pull(CSRGraph reverse, int[] order, int[] rank, int[] dist, int[] parent,
+             boolean longest, int unreachable, LongAdder relaxations) {
+            this.reverse = reverse;
+            this.weights = reverse.intWeights();
+            this.order = order;
+            this.rank = rank;
+            this.dist = dist;
+            this.parent = parent;
+            this.longest = longest;
+            this.unreachable = unreachable;
+            this.relaxations = relaxations;
+        }
+
+        void range(int lo, int hi) {
+            long edges = 0;
+            for (int i = lo; i < hi; i++) {
+                int v = order[i];
+                int best = unreachable, bestParent = -1;
+                for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                    int u = reverse.targets[e];
+                    if (dist[u] == unreachable) continue;
+                    edges++;
+                    int candidate = dist[u] + weights[e];
+                    boolean better = longest ? candidate > best : candidate < best;
+                    if (better || (candidate == best && bestParent != -1 && rank[u] < rank[bestParent])) {
+                        best = candidate;
+                        bestParent = u;
+                    }
+                }
+                dist[v] = best;
+                if (parent != null) parent[v] = bestParent;
+            }
+            relaxations.add(edges);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class LevelTask extends RecursiveAction {
+        private final Pull pull;
+        private final int lo, hi;
+
+        LevelTask(Pull pull, int lo, int hi) {
+            this.pull = pull;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+                pull.range(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LevelTask(pull, lo, mid), new LevelTask(pull, mid, hi));
+        }
+    }
+}
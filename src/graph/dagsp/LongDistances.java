@@ -0,0 +1,58 @@
+package graph.dagsp;
+
+import java.util.*;
+
+public class LongDistances {
+    public final int source;
+    public final long[] dist;
+    public final BitSet reachable;
+    public final int[] parent;
+
+    LongDistances(int source, long[] dist, BitSet reachable, int[] parent) {
+        this.source = source;
+        this.dist = dist;
+        this.reachable = reachable;
+        this.parent = parent;
+    }
+
+    public static LongDistances fromInt(int source, int[] dist, int[] parent, int unreachable) {
+        long[] wide = new long[dist.length];
+        BitSet reachable = new BitSet(dist.length);
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] == unreachable) continue;
+            wide[v] = dist[v];
+            reachable.set(v);
+        }
+        return new LongDistances(source, wide, reachable, parent);
+    }
+
+    public boolean isReachable(int v) {
+        return reachable.get(v);
+    }
+
+    public long get(int v) {
+        if (!reachable.get(v)) throw new NoSuchElementException("Vertex " + v + " is unreachable from " + source);
+        return dist[v];
+    }
+
+    public int argMax() {
+        int best = -1;
+        for (int v = reachable.nextSetBit(0); v >= 0; v = reachable.nextSetBit(v + 1)) {
+            if (best == -1 || dist[v] > dist[best]) best = v;
+        }
+        return best;
+    }
+
+    public int argMin() {
+        int best = -1;
+        for (int v = reachable.nextSetBit(0); v >= 0; v = reachable.nextSetBit(v + 1)) {
+            if (best == -1 || dist[v] < dist[best]) best = v;
+        }
+        return best;
+    }
+
+    public int[] pathTo(int v) {
+        if (!reachable.get(v)) return null;
+        return DAGShortestPath.reconstructPath(source, v, parent);
+    }
+}
@@ -1,110 +1,101 @@
 package graph.scc;
 
+import graph.CSRGraph;
 import java.util.*;
 
 public class CondensationGraph {
-    private List<List<Integer>> originalAdj;
-    private List<List<Integer>> components;
-    private Map<Integer, Integer> nodeToComponent;
-    private List<List<Integer>> condensationAdj;
-    private List<List<int[]>> condensationWeightedAdj;
+    private CSRGraph original;
+    private SCCAlgorithm scc;
+    private int[] componentOf;
+    private CSRGraph condensation;
 
-    public CondensationGraph(List<List<Integer>> originalAdj, List<List<Integer>> components) {
-        this.originalAdj = originalAdj;
-        this.components = components;
-        this.nodeToComponent = new HashMap<>();
-        
-        for (int compId = 0; compId < components.size(); compId++) {
-            for (int node : components.get(compId)) {
-                nodeToComponent.put(node, compId);
-            }
-        }
-        
+    public CondensationGraph(CSRGraph original, SCCAlgorithm scc) {
+        this.original = original;
+        this.scc = scc;
+        this.componentOf = scc.getComponentOf();
         buildCondensationGraph();
     }
 
     private void buildCondensationGraph() {
-        int numComponents = components.size();
-        condensationAdj = new ArrayList<>();
-        condensationWeightedAdj = new ArrayList<>();
-        
-        for (int i = 0; i < numComponents; i++) {
-            condensationAdj.add(new ArrayList<>());
-            condensationWeightedAdj.add(new ArrayList<>());
+        int numComponents = scc.getComponentCount();
+        int[] componentStart = scc.getComponentStart();
+
+        int[] byComponent = new int[original.n];
+        int[] cursor = Arrays.copyOf(componentStart, numComponents);
+        for (int u = 0; u < original.n; u++) {
+            byComponent[cursor[componentOf[u]]++] = u;
         }
-        
-        Set<String> edgeSet = new HashSet<>();
-        
-        for (int u = 0; u < originalAdj.size(); u++) {
-            int compU = nodeToComponent.get(u);
-            for (int v : originalAdj.get(u)) {
-                int compV = nodeToComponent.get(v);
-                if (compU != compV) {
-                    String edge = compU + "," + compV;
-                    if (!edgeSet.contains(edge)) {
-                        edgeSet.add(edge);
-                        condensationAdj.get(compU).add(compV);
+
+        int[] lastSource = cursor;
+        Arrays.fill(lastSource, -1);
+        int[] slot = new int[numComponents];
+        int[] offsets = new int[numComponents + 1];
+        int capacity = Math.max(16, Math.min(original.edgeCount(), numComponents));
+        int[] targets = new int[capacity];
+        boolean longWeights = original.hasLongWeights();
+        int[] weights = longWeights ? null : new int[capacity];
+        long[] wideWeights = longWeights ? new long[capacity] : null;
+        int m = 0;
+
+        for (int compU = 0; compU < numComponents; compU++) {
+            offsets[compU] = m;
+            for (int i = componentStart[compU]; i < componentStart[compU + 1]; i++) {
+                int u = byComponent[i];
+                for (int e = original.offsets[u]; e < original.offsets[u + 1]; e++) {
+                    int compV = componentOf[original.targets[e]];
+                    if (compU == compV) continue;
+                    if (lastSource[compV] != compU) {
+                        if (m == targets.length) {
+                            targets = Arrays.copyOf(targets, m * 2);
+                            if (longWeights) wideWeights = Arrays.copyOf(wideWeights, m * 2);
+                            else weights = Arrays.copyOf(weights, m * 2);
+                        }
+                        lastSource[compV] = compU;
+                        slot[compV] = m;
+                        targets[m] = compV;
+                        if (longWeights) wideWeights[m] = original.longWeights[e];
+                        else weights[m] = original.weights[e];
+                        m++;
+                    } else if (longWeights) {
+                        wideWeights[slot[compV]] = Math.min(wideWeights[slot[compV]], original.longWeights[e]);
+                    } else {
+                        weights[slot[compV]] = Math.min(weights[slot[compV]], original.weights[e]);
                     }
                 }
             }
         }
+        offsets[numComponents] = m;
+
+        condensation = new CSRGraph(numComponents, offsets, Arrays.copyOf(targets, m),
+            longWeights ? null : Arrays.copyOf(weights, m),
+            longWeights ? Arrays.copyOf(wideWeights, m) : null);
     }
 
-    public List<List<Integer>> getCondensationAdj() {
-        return condensationAdj;
+    public CSRGraph getCondensation() {
+        return condensation;
     }
 
     public List<List<Integer>> getComponents() {
-        return components;
+        return scc.getComponents();
     }
 
-    public Map<Integer, Integer> getNodeToComponent() {
-        return nodeToComponent;
+    public int[] getComponentOf() {
+        return componentOf;
     }
 
-    public List<Integer> getComponentOrder(List<Integer> condensationTopo) {
-        List<Integer> taskOrder = new ArrayList<>();
-        for (int compId : condensationTopo) {
-            taskOrder.addAll(components.get(compId));
-        }
-        return taskOrder;
+    public int getComponent(int node) {
+        return componentOf[node];
     }
 
-    public List<List<int[]>> buildWeightedCondensation(List<List<int[]>> originalWeightedAdj) {
-        int numComponents = components.size();
-        List<List<int[]>> weightedCondensation = new ArrayList<>();
-        
-        for (int i = 0; i < numComponents; i++) {
-            weightedCondensation.add(new ArrayList<>());
-        }
-        
-        Map<String, Integer> minWeight = new HashMap<>();
-        
-        for (int u = 0; u < originalWeightedAdj.size(); u++) {
-            int compU = nodeToComponent.get(u);
-            for (int[] edge : originalWeightedAdj.get(u)) {
-                int v = edge[0];
-                int w = edge[1];
-                int compV = nodeToComponent.get(v);
-                
-                if (compU != compV) {
-                    String edgeKey = compU + "," + compV;
-                    if (!minWeight.containsKey(edgeKey) || w < minWeight.get(edgeKey)) {
-                        minWeight.put(edgeKey, w);
-                    }
-                }
+    public List<Integer> getComponentOrder(List<Integer> condensationTopo) {
+        int[] members = scc.getMembers();
+        int[] componentStart = scc.getComponentStart();
+        List<Integer> taskOrder = new ArrayList<>(members.length);
+        for (int compId : condensationTopo) {
+            for (int i = componentStart[compId]; i < componentStart[compId + 1]; i++) {
+                taskOrder.add(members[i]);
             }
         }
-        
-        for (Map.Entry<String, Integer> entry : minWeight.entrySet()) {
-            String[] parts = entry.getKey().split(",");
-            int compU = Integer.parseInt(parts[0]);
-            int compV = Integer.parseInt(parts[1]);
-            int weight = entry.getValue();
-            weightedCondensation.get(compU).add(new int[]{compV, weight});
-        }
-        
-        return weightedCondensation;
+        return taskOrder;
     }
 }
-
@@ -0,0 +1,339 @@
+package graph.scc;
+
+import graph.CSRGraph;
+import graph.topo.KahnTopo;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+
+public class IncrementalSCC implements SCCAlgorithm {
+    private final int n;
+    private int m = 0;
+    private int[] edgeFrom, edgeTo, nextOut, nextIn;
+    private long[] edgeWeight;
+    private boolean wideWeights;
+    private final int[] headOut, headIn;
+
+    private final int[] rep;
+    private final int[] size;
+    private final int[] nextMember;
+    private final int[] ord;
+    private final int[] pos;
+    private int componentCount;
+
+    private final int[] forwardMark, backwardMark;
+    private int epoch = 0;
+    private int[] stack, forward, backward;
+
+    private int[] componentOf, members, componentStart;
+    private List<List<Integer>> components;
+    private CSRGraph graph, condensation;
+
+    private final Counter edgesInserted, reorders, componentsMerged, componentsVisited;
+
+    public IncrementalSCC(CSRGraph initial) {
+        this(initial, null);
+    }
+
+    public IncrementalSCC(CSRGraph initial, Metrics metrics) {
+        Metrics metric = NoOpMetrics.orNoOp(metrics);
+        edgesInserted = metric.counter("edges_inserted");
+        reorders = metric.counter("reorders");
+        componentsMerged = metric.counter("components_merged");
+        componentsVisited = metric.counter("components_visited");
+
+        n = initial.n;
+        int capacity = Math.max(16, initial.edgeCount());
+        edgeFrom = new int[capacity];
+        edgeTo = new int[capacity];
+        edgeWeight = new long[capacity];
+        nextOut = new int[capacity];
+        nextIn = new int[capacity];
+        headOut = new int[n];
+        headIn = new int[n];
+        Arrays.fill(headOut, -1);
+        Arrays.fill(headIn, -1);
+        wideWeights = initial.hasLongWeights();
+        for (int u = 0; u < n; u++) {
+            for (int e = initial.offsets[u]; e < initial.offsets[u + 1]; e++) {
+                link(u, initial.targets[e], initial.weight(e));
+            }
+        }
+
+        rep = new int[n];
+        size = new int[n];
+        nextMember = new int[n];
+        ord = new int[n];
+        pos = new int[n];
+        forwardMark = new int[n];
+        backwardMark = new int[n];
+        stack = new int[16];
+        forward = new int[16];
+        backward = new int[16];
+        Arrays.fill(pos, -1);
+
+        SCCAlgorithm scc = SCCAlgorithm.forGraph(initial, null);
+        int[] initialMembers = scc.getMembers();
+        int[] initialStart = scc.getComponentStart();
+        componentCount = scc.getComponentCount();
+        List<Integer> topo = KahnTopo.topologicalSort(new CondensationGraph(initial, scc).getCondensation());
+        for (int c = 0; c < componentCount; c++) {
+            int leader = initialMembers[initialStart[c]];
+            int count = initialStart[c + 1] - initialStart[c];
+            for (int i = initialStart[c]; i < initialStart[c + 1]; i++) {
+                int v = initialMembers[i];
+                rep[v] = leader;
+                nextMember[v] = initialMembers[i + 1 < initialStart[c + 1] ? i + 1 : initialStart[c]];
+            }
+            size[leader] = count;
+        }
+        for (int i = 0; i < topo.size(); i++) {
+            int leader = initialMembers[initialStart[topo.get(i)]];
+            ord[leader] = i;
+            pos[i] = leader;
+        }
+        graph = initial;
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return m;
+    }
+
+    public boolean sameComponent(int u, int v) {
+        return find(u) == find(v);
+    }
+
+    public boolean addEdge(int u, int v, long w) {
+        Objects.checkIndex(u, n);
+        Objects.checkIndex(v, n);
+        link(u, v, w);
+        edgesInserted.increment();
+        invalidate();
+
+        int cu = find(u), cv = find(v);
+        if (cu == cv || ord[cu] < ord[cv]) return false;
+
+        int lb = ord[cv], ub = ord[cu];
+        epoch++;
+        int forwardCount = search(cv, ub, true);
+        int backwardCount = search(cu, lb, false);
+        reorders.increment();
+
+        int[] pool = new int[forwardCount + backwardCount];
+        int slots = 0;
+        for (int i = 0; i < forwardCount; i++) pool[slots++] = ord[forward[i]];
+        for (int i = 0; i < backwardCount; i++) {
+            if (forwardMark[backward[i]] != epoch) pool[slots++] = ord[backward[i]];
+        }
+        Arrays.sort(pool, 0, slots);
+
+        if (forwardMark[cu] != epoch) {
+            reassign(pool, slots, backward, backwardCount, forward, forwardCount, -1);
+            return false;
+        }
+
+        int after = 0, before = 0, merged = cu;
+        for (int i = 0; i < forwardCount; i++) {
+            int c = forward[i];
+            if (backwardMark[c] != epoch) forward[after++] = c;
+        }
+        for (int i = 0; i < backwardCount; i++) {
+            int c = backward[i];
+            if (forwardMark[c] != epoch) backward[before++] = c;
+            else if (c != cu) merged = union(merged, c);
+        }
+        reassign(pool, slots, backward, before, forward, after, merged);
+        return true;
+    }
+
+    private int search(int start, int bound, boolean outgoing) {
+        int[] mark = outgoing ? forwardMark : backwardMark;
+        int count = 0, depth = 0;
+        mark[start] = epoch;
+        stack[depth++] = start;
+        while (depth > 0) {
+            int c = stack[--depth];
+            if (outgoing) forward = push(forward, count, c);
+            else backward = push(backward, count, c);
+            count++;
+            componentsVisited.increment();
+            int v = c;
+            do {
+                for (int e = outgoing ? headOut[v] : headIn[v]; e != -1; e = outgoing ? nextOut[e] : nextIn[e]) {
+                    int d = find(outgoing ? edgeTo[e] : edgeFrom[e]);
+                    if (mark[d] == epoch || d == c) continue;
+                    if (outgoing ? ord[d] > bound : ord[d] < bound) continue;
+                    mark[d] = epoch;
+                    stack = push(stack, depth++, d);
+                }
+                v = nextMember[v];
+            } while (v != c);
+        }
+        return count;
+    }
+
+    private void reassign(int[] pool, int slots, int[] before, int beforeCount, int[] after, int afterCount, int merged) {
+        sortByOrd(before, beforeCount);
+        sortByOrd(after, afterCount);
+        for (int i = 0; i < slots; i++) pos[pool[i]] = -1;
+        for (int i = 0; i < beforeCount; i++) place(before[i], pool[i]);
+        if (merged != -1) place(merged, pool[beforeCount]);
+        for (int i = 0; i < afterCount; i++) place(after[i], pool[slots - afterCount + i]);
+    }
+
+    private int union(int a, int b) {
+        if (size[a] < size[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        rep[b] = a;
+        size[a] += size[b];
+        int next = nextMember[a];
+        nextMember[a] = nextMember[b];
+        nextMember[b] = next;
+        componentCount--;
+        componentsMerged.increment();
+        return a;
+    }
+
+    private void sortByOrd(int[] comps, int count) {
+        int[] keys = new int[count];
+        for (int i = 0; i < count; i++) keys[i] = ord[comps[i]];
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) comps[i] = pos[keys[i]];
+    }
+
+    private void place(int c, int slot) {
+        ord[c] = slot;
+        pos[slot] = c;
+    }
+
+    private int find(int v) {
+        while (rep[v] != v) {
+            rep[v] = rep[rep[v]];
+            v = rep[v];
+        }
+        return v;
+    }
+
+    private void link(int u, int v, long w) {
+        if (m == edgeFrom.length) {
+            int capacity = m + (m >> 1);
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            nextOut = Arrays.copyOf(nextOut, capacity);
+            nextIn = Arrays.copyOf(nextIn, capacity);
+        }
+        edgeFrom[m] = u;
+        edgeTo[m] = v;
+        edgeWeight[m] = w;
+        nextOut[m] = headOut[u];
+        headOut[u] = m;
+        nextIn[m] = headIn[v];
+        headIn[v] = m;
+        if (w < Integer.MIN_VALUE || w > Integer.MAX_VALUE) wideWeights = true;
+        m++;
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        if (index == array.length) array = Arrays.copyOf(array, index * 2);
+        array[index] = value;
+        return array;
+    }
+
+    private void snapshot() {
+        if (componentOf != null) return;
+        componentOf = new int[n];
+        members = new int[n];
+        componentStart = new int[componentCount + 1];
+        int id = 0, next = 0;
+        for (int slot = 0; slot < n; slot++) {
+            int c = pos[slot];
+            if (c == -1) continue;
+            int v = c;
+            do {
+                componentOf[v] = id;
+                members[next++] = v;
+                v = nextMember[v];
+            } while (v != c);
+            componentStart[++id] = next;
+        }
+    }
+
+    @Override
+    public List<List<Integer>> getComponents() {
+        if (components == null) {
+            snapshot();
+            components = new ArrayList<>(componentCount);
+            for (int c = 0; c < componentCount; c++) {
+                List<Integer> comp = new ArrayList<>(componentStart[c + 1] - componentStart[c]);
+                for (int i = componentStart[c]; i < componentStart[c + 1]; i++) comp.add(members[i]);
+                components.add(comp);
+            }
+        }
+        return components;
+    }
+
+    @Override
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    @Override
+    public int[] getComponentOf() {
+        snapshot();
+        return componentOf;
+    }
+
+    @Override
+    public int[] getMembers() {
+        snapshot();
+        return members;
+    }
+
+    @Override
+    public int[] getComponentStart() {
+        snapshot();
+        return componentStart;
+    }
+
+    public CSRGraph getGraph() {
+        if (graph == null) {
+            if (wideWeights) {
+                graph = CSRGraph.fromArrays(n, m, edgeFrom, edgeTo, edgeWeight);
+            } else {
+                int[] w = new int[m];
+                for (int e = 0; e < m; e++) w[e] = (int) edgeWeight[e];
+                graph = CSRGraph.fromArrays(n, m, edgeFrom, edgeTo, w);
+            }
+        }
+        return graph;
+    }
+
+    public CSRGraph getCondensation() {
+        if (condensation == null) condensation = new CondensationGraph(getGraph(), this).getCondensation();
+        return condensation;
+    }
+
+    public List<Integer> getTopologicalOrder() {
+        List<Integer> order = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) order.add(c);
+        return order;
+    }
+
+    private void invalidate() {
+        componentOf = null;
+        members = null;
+        componentStart = null;
+        components = null;
+        graph = null;
+        condensation = null;
+    }
+}
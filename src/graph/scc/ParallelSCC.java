@@ -0,0 +1,257 @@
+package graph.scc;
+
+import graph.CSRGraph;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class ParallelSCC implements SCCAlgorithm {
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+    private static final int REMOVED = -1;
+    private static final int ROOT_COLOR = 1;
+
+    private final CSRGraph graph;
+    private final CSRGraph reverse;
+    private final int[] color;
+    private final int[] inDeg, outDeg;
+    private final int[] forwardMark, backwardMark;
+    private final int[] componentOf;
+    private final AtomicInteger nextColor = new AtomicInteger(ROOT_COLOR + 1);
+    private final LongAdder trimmed = new LongAdder();
+    private final LongAdder pivots = new LongAdder();
+    private final LongAdder edgesProcessed = new LongAdder();
+    private int[] members;
+    private int[] componentStart;
+    private int componentCount;
+    private List<List<Integer>> components;
+
+    public ParallelSCC(CSRGraph graph) {
+        this(graph, null);
+    }
+
+    public ParallelSCC(CSRGraph graph, Metrics metrics) {
+        this(graph, ForkJoinPool.commonPool(), metrics);
+    }
+
+    public ParallelSCC(CSRGraph graph, ForkJoinPool pool, Metrics metrics) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        int n = graph.n;
+        color = new int[n];
+        inDeg = new int[n];
+        outDeg = new int[n];
+        forwardMark = new int[n];
+        backwardMark = new int[n];
+        componentOf = new int[n];
+
+        int[] all = new int[n];
+        for (int v = 0; v < n; v++) all[v] = v;
+        Arrays.fill(color, ROOT_COLOR);
+        pool.invoke(new PartitionTask(all, ROOT_COLOR));
+        numberComponents();
+
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        m.counter("trimmed_vertices").add(trimmed.sum());
+        m.counter("pivots").add(pivots.sum());
+        m.counter("edges_processed").add(edgesProcessed.sum());
+    }
+
+    @SuppressWarnings("serial")
+    private class PartitionTask extends RecursiveAction {
+        private final int[] vertices;
+        private final int taskColor;
+
+        PartitionTask(int[] vertices, int taskColor) {
+            this.vertices = vertices;
+            this.taskColor = taskColor;
+        }
+
+        @Override
+        protected void compute() {
+            // the largest part stays on this thread and smaller ones are forked, so forked tasks at
+            // least halve in size and nesting stays logarithmic even with bad pivots
+            ArrayDeque<PartitionTask> pending = new ArrayDeque<>();
+            List<PartitionTask> forked = new ArrayList<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                List<PartitionTask> parts = pending.pop().partition();
+                int largest = 0;
+                for (int i = 1; i < parts.size(); i++) {
+                    if (parts.get(i).vertices.length > parts.get(largest).vertices.length) largest = i;
+                }
+                for (int i = 0; i < parts.size(); i++) {
+                    PartitionTask part = parts.get(i);
+                    if (i != largest && part.vertices.length >= SEQUENTIAL_THRESHOLD) {
+                        part.fork();
+                        forked.add(part);
+                    } else {
+                        pending.push(part);
+                    }
+                }
+            }
+            for (PartitionTask task : forked) task.join();
+        }
+
+        private List<PartitionTask> partition() {
+            int[] live = trim(vertices, taskColor);
+            if (live.length == 0) return Collections.emptyList();
+
+            int pivot = live[live.length / 2];
+            pivots.increment();
+            traverse(pivot, graph, forwardMark, live.length);
+            traverse(pivot, reverse, backwardMark, live.length);
+
+            int forwardOnly = 0, backwardOnly = 0, rest = 0;
+            for (int v : live) {
+                boolean f = forwardMark[v] == taskColor, b = backwardMark[v] == taskColor;
+                if (f && b) {
+                    componentOf[v] = pivot;
+                    color[v] = REMOVED;
+                } else if (f) {
+                    forwardOnly++;
+                } else if (b) {
+                    backwardOnly++;
+                } else {
+                    rest++;
+                }
+            }
+
+            List<PartitionTask> subtasks = new ArrayList<>(3);
+            addSubtask(subtasks, live, forwardOnly, true, false);
+            addSubtask(subtasks, live, backwardOnly, false, true);
+            addSubtask(subtasks, live, rest, false, false);
+            return subtasks;
+        }
+
+        private void addSubtask(List<PartitionTask> subtasks, int[] live, int size, boolean inForward, boolean inBackward) {
+            if (size == 0) return;
+            int subColor = nextColor.getAndIncrement();
+            int[] part = new int[size];
+            int k = 0;
+            for (int v : live) {
+                if (color[v] != taskColor) continue;
+                if ((forwardMark[v] == taskColor) == inForward && (backwardMark[v] == taskColor) == inBackward) {
+                    part[k++] = v;
+                }
+            }
+            for (int v : part) color[v] = subColor;
+            subtasks.add(new PartitionTask(part, subColor));
+        }
+
+        private void traverse(int pivot, CSRGraph g, int[] mark, int capacity) {
+            int[] queue = new int[capacity];
+            int head = 0, tail = 0;
+            long edges = 0;
+            mark[pivot] = taskColor;
+            queue[tail++] = pivot;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                    int v = g.targets[e];
+                    edges++;
+                    if (color[v] == taskColor && mark[v] != taskColor) {
+                        mark[v] = taskColor;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            edgesProcessed.add(edges);
+        }
+    }
+
+    private int[] trim(int[] vertices, int taskColor) {
+        int[] queue = new int[vertices.length];
+        int head = 0, tail = 0;
+        for (int v : vertices) {
+            outDeg[v] = countLive(graph, v, taskColor);
+            inDeg[v] = countLive(reverse, v, taskColor);
+            if (inDeg[v] == 0 || outDeg[v] == 0) queue[tail++] = v;
+        }
+
+        while (head < tail) {
+            int v = queue[head++];
+            componentOf[v] = v;
+            color[v] = REMOVED;
+            for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+                int w = graph.targets[e];
+                if (color[w] == taskColor && --inDeg[w] == 0 && outDeg[w] != 0) queue[tail++] = w;
+            }
+            for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                int w = reverse.targets[e];
+                if (color[w] == taskColor && --outDeg[w] == 0 && inDeg[w] != 0) queue[tail++] = w;
+            }
+        }
+        trimmed.add(tail);
+
+        if (tail == 0) return vertices;
+        int[] live = new int[vertices.length - tail];
+        int k = 0;
+        for (int v : vertices) {
+            if (color[v] == taskColor) live[k++] = v;
+        }
+        return live;
+    }
+
+    private int countLive(CSRGraph g, int v, int taskColor) {
+        int count = 0;
+        for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+            int w = g.targets[e];
+            if (w != v && color[w] == taskColor) count++;
+        }
+        return count;
+    }
+
+    private void numberComponents() {
+        int n = graph.n;
+        int[] idOfRepresentative = new int[n];
+        Arrays.fill(idOfRepresentative, -1);
+        componentStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            int rep = componentOf[v];
+            if (idOfRepresentative[rep] == -1) idOfRepresentative[rep] = componentCount++;
+            componentOf[v] = idOfRepresentative[rep];
+            componentStart[componentOf[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) componentStart[c + 1] += componentStart[c];
+        componentStart = Arrays.copyOf(componentStart, componentCount + 1);
+
+        members = new int[n];
+        int[] cursor = Arrays.copyOf(componentStart, componentCount);
+        for (int v = 0; v < n; v++) members[cursor[componentOf[v]]++] = v;
+    }
+
+    @Override
+    public List<List<Integer>> getComponents() {
+        if (components == null) {
+            components = new ArrayList<>(componentCount);
+            for (int c = 0; c < componentCount; c++) {
+                List<Integer> comp = new ArrayList<>(componentStart[c + 1] - componentStart[c]);
+                for (int i = componentStart[c]; i < componentStart[c + 1]; i++) comp.add(members[i]);
+                components.add(comp);
+            }
+        }
+        return components;
+    }
+
+    @Override
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    @Override
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    @Override
+    public int[] getMembers() {
+        return members;
+    }
+
+    @Override
+    public int[] getComponentStart() {
+        return componentStart;
+    }
+}
@@ -0,0 +1,28 @@
+package graph.scc;
+
+import graph.CSRGraph;
+import metrics.Metrics;
+import java.util.*;
+
+public interface SCCAlgorithm {
+    int PARALLEL_THRESHOLD = 1 << 17;
+
+    List<List<Integer>> getComponents();
+    int getComponentCount();
+    int[] getComponentOf();
+    int[] getMembers();
+    int[] getComponentStart();
+
+    static SCCAlgorithm forGraph(CSRGraph graph, Metrics metrics) {
+        return forGraph(graph, false, metrics);
+    }
+
+    // ParallelSCC finds the same partition as Tarjan but numbers components by smallest member
+    // rather than in reverse topological order, so it is only used when the caller asks for it
+    static SCCAlgorithm forGraph(CSRGraph graph, boolean parallel, Metrics metrics) {
+        if (parallel && graph.n >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            return new ParallelSCC(graph, metrics);
+        }
+        return new TarjanSCC(graph, metrics);
+    }
+}
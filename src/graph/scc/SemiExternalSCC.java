@@ -0,0 +1,123 @@
+package graph.scc;
+
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.nio.IntBuffer;
+import java.util.*;
+
+public class SemiExternalSCC implements SCCAlgorithm {
+    private final IntBuffer offsets, targets;
+    private int time = 0;
+    private int[] low, disc, callStack, edgeCursor;
+    private int[] componentOf;
+    private int[] members;
+    private int[] componentStart;
+    private int stackTop, emitted = 0;
+    private int componentCount = 0;
+    private List<List<Integer>> components;
+    private final Counter dfsVisits, edgesProcessed;
+
+    public SemiExternalSCC(int n, IntBuffer offsets, IntBuffer targets, Metrics metrics) {
+        this.offsets = offsets;
+        this.targets = targets;
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        dfsVisits = m.counter("dfs_visits");
+        edgesProcessed = m.counter("edges_processed");
+
+        low = new int[n];
+        disc = new int[n];
+        callStack = new int[n];
+        edgeCursor = new int[n];
+        componentOf = new int[n];
+        members = new int[n];
+        stackTop = n;
+        Arrays.fill(disc, -1);
+        Arrays.fill(componentOf, -1);
+        for (int i = 0; i < n; i++)
+            if (disc[i] == -1) dfs(i);
+        low = disc = callStack = edgeCursor = null;
+
+        componentStart = new int[componentCount + 1];
+        for (int v = 0; v < n; v++) componentStart[componentOf[v] + 1]++;
+        for (int c = 0; c < componentCount; c++) componentStart[c + 1] += componentStart[c];
+    }
+
+    private void dfs(int root) {
+        int depth = 0;
+        callStack[depth++] = visit(root);
+
+        while (depth > 0) {
+            int u = callStack[depth - 1];
+            if (edgeCursor[u] < offsets.get(u + 1)) {
+                int v = targets.get(edgeCursor[u]++);
+                edgesProcessed.increment();
+                if (disc[v] == -1) {
+                    callStack[depth++] = visit(v);
+                } else if (componentOf[v] == -1) {
+                    low[u] = Math.min(low[u], disc[v]);
+                }
+                continue;
+            }
+
+            depth--;
+            if (low[u] == disc[u]) popComponent(u);
+            if (depth > 0) {
+                int parent = callStack[depth - 1];
+                low[parent] = Math.min(low[parent], low[u]);
+            }
+        }
+    }
+
+    private int visit(int u) {
+        dfsVisits.increment();
+        disc[u] = low[u] = time++;
+        edgeCursor[u] = offsets.get(u);
+        // the Tarjan stack grows down from the end of members; popped vertices are emitted from the front
+        members[--stackTop] = u;
+        return u;
+    }
+
+    private void popComponent(int u) {
+        int v;
+        do {
+            v = members[stackTop++];
+            componentOf[v] = componentCount;
+            members[emitted++] = v;
+        } while (v != u);
+        componentCount++;
+    }
+
+    @Override
+    public List<List<Integer>> getComponents() {
+        if (components == null) {
+            components = new ArrayList<>(componentCount);
+            for (int c = 0; c < componentCount; c++) {
+                List<Integer> comp = new ArrayList<>(componentStart[c + 1] - componentStart[c]);
+                for (int i = componentStart[c]; i < componentStart[c + 1]; i++) comp.add(members[i]);
+                components.add(comp);
+            }
+        }
+        return components;
+    }
+
+    @Override
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    @Override
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    @Override
+    public int[] getMembers() {
+        return members;
+    }
+
+    @Override
+    public int[] getComponentStart() {
+        return componentStart;
+    }
+}
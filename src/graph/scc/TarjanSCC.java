@@ -1,65 +1,135 @@
 package graph.scc;
 
-import metrics.AlgorithmMetrics;
+import graph.CSRGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
 import java.util.*;
 
-public class TarjanSCC {
-    private List<List<Integer>> adj;
+public class TarjanSCC implements SCCAlgorithm {
+    private CSRGraph graph;
     private int time = 0;
     private int[] low, disc;
     private boolean[] stackMember;
-    private Deque<Integer> stack;
-    private List<List<Integer>> components = new ArrayList<>();
-    private AlgorithmMetrics metrics;
+    private int[] stack;
+    private int stackSize = 0;
+    private int[] callStack;
+    private int[] edgeCursor;
+    private int[] componentOf;
+    private int[] members;
+    private int[] componentStart;
+    private int componentCount = 0;
+    private List<List<Integer>> components;
+    private final Counter dfsVisits, stackPushes, edgesProcessed, stackPops;
 
-    public TarjanSCC(List<List<Integer>> adj) {
-        this(adj, null);
+    public TarjanSCC(CSRGraph graph) {
+        this(graph, null);
     }
 
-    public TarjanSCC(List<List<Integer>> adj, AlgorithmMetrics metrics) {
-        this.adj = adj;
-        this.metrics = metrics;
-        int n = adj.size();
+    public TarjanSCC(CSRGraph graph, Metrics metrics) {
+        this.graph = graph;
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        dfsVisits = m.counter("dfs_visits");
+        stackPushes = m.counter("stack_pushes");
+        edgesProcessed = m.counter("edges_processed");
+        stackPops = m.counter("stack_pops");
+        int n = graph.n;
         low = new int[n];
         disc = new int[n];
         stackMember = new boolean[n];
-        stack = new ArrayDeque<>();
+        stack = new int[n];
+        callStack = new int[n];
+        edgeCursor = new int[n];
+        componentOf = new int[n];
+        members = new int[n];
+        componentStart = new int[n + 1];
         Arrays.fill(disc, -1);
         for (int i = 0; i < n; i++)
             if (disc[i] == -1) dfs(i);
+        componentStart = Arrays.copyOf(componentStart, componentCount + 1);
+        callStack = null;
+        edgeCursor = null;
     }
 
-    private void dfs(int u) {
-        if (metrics != null) metrics.count("dfs_visits");
-        disc[u] = low[u] = time++;
-        stack.push(u);
-        stackMember[u] = true;
-        if (metrics != null) metrics.count("stack_pushes");
+    private void dfs(int root) {
+        int depth = 0;
+        callStack[depth++] = visit(root);
 
-        for (int v : adj.get(u)) {
-            if (metrics != null) metrics.count("edges_processed");
-            if (disc[v] == -1) {
-                dfs(v);
-                low[u] = Math.min(low[u], low[v]);
-            } else if (stackMember[v]) {
-                low[u] = Math.min(low[u], disc[v]);
+        while (depth > 0) {
+            int u = callStack[depth - 1];
+            if (edgeCursor[u] < graph.offsets[u + 1]) {
+                int v = graph.targets[edgeCursor[u]++];
+                edgesProcessed.increment();
+                if (disc[v] == -1) {
+                    callStack[depth++] = visit(v);
+                } else if (stackMember[v]) {
+                    low[u] = Math.min(low[u], disc[v]);
+                }
+                continue;
             }
-        }
 
-        if (low[u] == disc[u]) {
-            List<Integer> comp = new ArrayList<>();
-            int v;
-            do {
-                v = stack.pop();
-                stackMember[v] = false;
-                comp.add(v);
-                if (metrics != null) metrics.count("stack_pops");
-            } while (v != u);
-            components.add(comp);
+            depth--;
+            if (low[u] == disc[u]) popComponent(u);
+            if (depth > 0) {
+                int parent = callStack[depth - 1];
+                low[parent] = Math.min(low[parent], low[u]);
+            }
         }
     }
 
+    private int visit(int u) {
+        dfsVisits.increment();
+        disc[u] = low[u] = time++;
+        edgeCursor[u] = graph.offsets[u];
+        stack[stackSize++] = u;
+        stackMember[u] = true;
+        stackPushes.increment();
+        return u;
+    }
+
+    private void popComponent(int u) {
+        int next = componentStart[componentCount];
+        int v;
+        do {
+            v = stack[--stackSize];
+            stackMember[v] = false;
+            componentOf[v] = componentCount;
+            members[next++] = v;
+            stackPops.increment();
+        } while (v != u);
+        componentStart[++componentCount] = next;
+    }
+
+    @Override
     public List<List<Integer>> getComponents() {
+        if (components == null) {
+            components = new ArrayList<>(componentCount);
+            for (int c = 0; c < componentCount; c++) {
+                List<Integer> comp = new ArrayList<>(componentStart[c + 1] - componentStart[c]);
+                for (int i = componentStart[c]; i < componentStart[c + 1]; i++) comp.add(members[i]);
+                components.add(comp);
+            }
+        }
         return components;
     }
+
+    @Override
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    @Override
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    @Override
+    public int[] getMembers() {
+        return members;
+    }
+
+    @Override
+    public int[] getComponentStart() {
+        return componentStart;
+    }
 }
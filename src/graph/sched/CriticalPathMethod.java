@@ -0,0 +1,245 @@
+package graph.sched;
+
+import graph.CSRGraph;
+import graph.scc.SCCAlgorithm;
+import graph.topo.ParallelKahnTopo.LevelOrder;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class CriticalPathMethod {
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    public static Analysis analyze(CSRGraph dag, List<Integer> topo, SCCAlgorithm scc, Metrics metrics) {
+        return analyze(dag, topo, ListScheduler.componentDurations(scc), metrics);
+    }
+
+    public static Analysis analyze(CSRGraph dag, List<Integer> topo, long[] duration, Metrics metrics) {
+        int k = dag.n;
+        if (topo.size() != k) throw new IllegalArgumentException("Topological order covers " + topo.size() + " of " + k + " components; graph is not a DAG");
+        int[] order = new int[k];
+        for (int i = 0; i < k; i++) order[i] = topo.get(i);
+
+        long[] earliest = new long[k];
+        long edges = 0;
+        for (int u : order) {
+            long finish = earliest[u] + duration[u];
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                int s = dag.targets[e];
+                earliest[s] = Math.max(earliest[s], finish + lag(dag, e));
+            }
+            edges += dag.offsets[u + 1] - dag.offsets[u];
+        }
+
+        Sweep sweep = new Sweep(dag, null, order, duration, earliest, new LongAdder());
+        sweep.backward(0, k);
+        sweep.relaxations.add(edges);
+        return sweep.finish(metrics);
+    }
+
+    public static Analysis analyze(CSRGraph dag, LevelOrder levels, long[] duration, Metrics metrics) {
+        return analyze(dag, dag.reverse(), levels, duration, ForkJoinPool.commonPool(), metrics);
+    }
+
+    public static Analysis analyze(CSRGraph dag, CSRGraph reverse, LevelOrder levels, long[] duration,
+                                   ForkJoinPool pool, Metrics metrics) {
+        int k = dag.n;
+        if (!levels.isComplete()) throw new IllegalArgumentException("Level order covers " + levels.order.length + " of " + k + " components; graph is not a DAG");
+        Sweep sweep = new Sweep(dag, reverse, levels.order, duration, new long[k], new LongAdder());
+        for (int l = 0; l < levels.levelCount(); l++) {
+            sweep.run(levels.levelStart[l], levels.levelStart[l + 1], true, pool);
+        }
+        sweep.projectLength();
+        for (int l = levels.levelCount() - 1; l >= 0; l--) {
+            sweep.run(levels.levelStart[l], levels.levelStart[l + 1], false, pool);
+        }
+        return sweep.finish(metrics);
+    }
+
+    private static long lag(CSRGraph graph, int e) {
+        return Math.max(0, graph.weight(e));
+    }
+
+    private static class Sweep {
+        private final CSRGraph dag, reverse;
+        private final int[] order;
+        private final long[] duration, earliest, latest, totalFloat, freeFloat;
+        private final LongAdder relaxations;
+        private long length = -1;
+
+        Sweep(CSRGraph dag, CSRGraph reverse, int[] order, long[] duration, long[] earliest, LongAdder relaxations) {
+            int k = dag.n;
+            this.dag = dag;
+            this.reverse = reverse;
+            this.order = order;
+            this.duration = duration;
+            this.earliest = earliest;
+            this.latest = new long[k];
+            this.totalFloat = new long[k];
+            this.freeFloat = new long[k];
+            this.relaxations = relaxations;
+        }
+
+        void run(int lo, int hi, boolean forward, ForkJoinPool pool) {
+            if (hi - lo < SEQUENTIAL_THRESHOLD) {
+                if (forward) forward(lo, hi);
+                else backward(lo, hi);
+            } else {
+                pool.invoke(new LevelTask(this, lo, hi, forward));
+            }
+        }
+
+        void forward(int lo, int hi) {
+            long edges = 0;
+            for (int i = lo; i < hi; i++) {
+                int c = order[i];
+                long start = 0;
+                for (int e = reverse.offsets[c]; e < reverse.offsets[c + 1]; e++) {
+                    int p = reverse.targets[e];
+                    start = Math.max(start, earliest[p] + duration[p] + lag(reverse, e));
+                }
+                earliest[c] = start;
+                edges += reverse.offsets[c + 1] - reverse.offsets[c];
+            }
+            relaxations.add(edges);
+        }
+
+        void backward(int lo, int hi) {
+            long end = projectLength();
+            long edges = 0;
+            for (int i = hi - 1; i >= lo; i--) {
+                int c = order[i];
+                long finish = earliest[c] + duration[c];
+                long lateFinish = end, slack = end - finish;
+                for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                    int s = dag.targets[e];
+                    long lag = lag(dag, e);
+                    lateFinish = Math.min(lateFinish, latest[s] - lag);
+                    slack = Math.min(slack, earliest[s] - lag - finish);
+                }
+                latest[c] = lateFinish - duration[c];
+                totalFloat[c] = latest[c] - earliest[c];
+                freeFloat[c] = slack;
+                edges += dag.offsets[c + 1] - dag.offsets[c];
+            }
+            relaxations.add(edges);
+        }
+
+        long projectLength() {
+            if (length < 0) {
+                long max = 0;
+                for (int c = 0; c < earliest.length; c++) max = Math.max(max, earliest[c] + duration[c]);
+                length = max;
+            }
+            return length;
+        }
+
+        Analysis finish(Metrics metrics) {
+            int count = 0;
+            for (int c = 0; c < dag.n; c++) {
+                if (totalFloat[c] != 0) continue;
+                for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                    if (isCritical(c, e)) count++;
+                }
+            }
+            int[] edges = new int[count], from = new int[count];
+            count = 0;
+            for (int c = 0; c < dag.n; c++) {
+                if (totalFloat[c] != 0) continue;
+                for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                    if (!isCritical(c, e)) continue;
+                    edges[count] = e;
+                    from[count++] = c;
+                }
+            }
+            Metrics m = NoOpMetrics.orNoOp(metrics);
+            m.counter("relaxations").add(relaxations.sum());
+            m.counter("critical_edges").add(count);
+            return new Analysis(dag, duration, earliest, latest, totalFloat, freeFloat, projectLength(), edges, from);
+        }
+
+        private boolean isCritical(int c, int e) {
+            int s = dag.targets[e];
+            return totalFloat[s] == 0 && earliest[c] + duration[c] + lag(dag, e) == earliest[s];
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class LevelTask extends RecursiveAction {
+        private final Sweep sweep;
+        private final int lo, hi;
+        private final boolean forward;
+
+        LevelTask(Sweep sweep, int lo, int hi, boolean forward) {
+            this.sweep = sweep;
+            this.lo = lo;
+            this.hi = hi;
+            this.forward = forward;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+                if (forward) sweep.forward(lo, hi);
+                else sweep.backward(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LevelTask(sweep, lo, mid, forward), new LevelTask(sweep, mid, hi, forward));
+        }
+    }
+
+    public static class Analysis {
+        public final long[] duration;
+        public final long[] earliestStart;
+        public final long[] latestStart;
+        public final long[] totalFloat;
+        public final long[] freeFloat;
+        public final long projectLength;
+        public final int[] criticalEdges;
+        public final int[] criticalFrom;
+        private final CSRGraph dag;
+
+        Analysis(CSRGraph dag, long[] duration, long[] earliestStart, long[] latestStart, long[] totalFloat,
+                 long[] freeFloat, long projectLength, int[] criticalEdges, int[] criticalFrom) {
+            this.dag = dag;
+            this.duration = duration;
+            this.earliestStart = earliestStart;
+            this.latestStart = latestStart;
+            this.totalFloat = totalFloat;
+            this.freeFloat = freeFloat;
+            this.projectLength = projectLength;
+            this.criticalEdges = criticalEdges;
+            this.criticalFrom = criticalFrom;
+        }
+
+        public long earliestFinish(int c) {
+            return earliestStart[c] + duration[c];
+        }
+
+        public long latestFinish(int c) {
+            return latestStart[c] + duration[c];
+        }
+
+        public boolean isCritical(int c) {
+            return totalFloat[c] == 0;
+        }
+
+        public int criticalTo(int i) {
+            return dag.targets[criticalEdges[i]];
+        }
+
+        public int[] criticalComponents() {
+            int count = 0;
+            for (long f : totalFloat) if (f == 0) count++;
+            int[] critical = new int[count];
+            count = 0;
+            for (int c = 0; c < totalFloat.length; c++) {
+                if (totalFloat[c] == 0) critical[count++] = c;
+            }
+            return critical;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package graph.sched;
+
+import graph.CSRGraph;
+import graph.scc.SCCAlgorithm;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+
+public class ListScheduler {
+    public static Schedule schedule(CSRGraph dag, List<Integer> topo, SCCAlgorithm scc, int workers, Metrics metrics) {
+        return schedule(dag, topo, componentDurations(scc), workers, metrics);
+    }
+
+    public static Schedule schedule(CSRGraph dag, List<Integer> topo, long[] duration, int workers, Metrics metrics) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be >= 1");
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        Counter tasksScheduled = m.counter("tasks_scheduled");
+        Counter idleGaps = m.counter("idle_gaps");
+
+        int k = dag.n;
+        long[] priority = bottomLevels(dag, topo, duration);
+        long[] readyAt = new long[k];
+        long[] start = new long[k];
+        long[] finish = new long[k];
+        int[] worker = new int[k];
+        int[] remaining = new int[k];
+        int[] sequence = new int[k];
+        for (int e = 0; e < dag.edgeCount(); e++) remaining[dag.targets[e]]++;
+
+        long[] free = new long[workers];
+        Heap released = new Heap(k, readyAt, false);
+        Heap ready = new Heap(k, priority, true);
+        Heap idle = new Heap(workers, free, false);
+        for (int w = 0; w < workers; w++) idle.push(w);
+        for (int c = 0; c < k; c++) {
+            if (remaining[c] == 0) released.push(c);
+        }
+
+        long now = 0;
+        for (int done = 0; done < k; done++) {
+            int w = idle.poll();
+            long t = Math.max(free[w], now);
+            if (ready.isEmpty() && (released.isEmpty() || readyAt[released.peek()] > t)) {
+                if (released.isEmpty()) throw new IllegalArgumentException("Graph is not a DAG: " + (k - done) + " tasks never become ready");
+                t = readyAt[released.peek()];
+                idleGaps.increment();
+            }
+            now = t;
+            while (!released.isEmpty() && readyAt[released.peek()] <= t) ready.push(released.poll());
+
+            int c = ready.poll();
+            sequence[done] = c;
+            start[c] = t;
+            finish[c] = t + duration[c];
+            worker[c] = w;
+            free[w] = finish[c];
+            idle.push(w);
+            tasksScheduled.increment();
+
+            for (int e = dag.offsets[c]; e < dag.offsets[c + 1]; e++) {
+                int s = dag.targets[e];
+                readyAt[s] = Math.max(readyAt[s], finish[c] + Math.max(0, dag.weight(e)));
+                if (--remaining[s] == 0) released.push(s);
+            }
+        }
+        return new Schedule(workers, worker, start, finish, duration, priority, sequence);
+    }
+
+    public static long[] componentDurations(SCCAlgorithm scc) {
+        int[] componentStart = scc.getComponentStart();
+        long[] duration = new long[scc.getComponentCount()];
+        for (int c = 0; c < duration.length; c++) duration[c] = componentStart[c + 1] - componentStart[c];
+        return duration;
+    }
+
+    public static long[] bottomLevels(CSRGraph dag, List<Integer> topo, long[] duration) {
+        long[] level = new long[dag.n];
+        ListIterator<Integer> it = topo.listIterator(topo.size());
+        while (it.hasPrevious()) {
+            int u = it.previous();
+            long tail = 0;
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                tail = Math.max(tail, Math.max(0, dag.weight(e)) + level[dag.targets[e]]);
+            }
+            level[u] = duration[u] + tail;
+        }
+        return level;
+    }
+
+    public static class Schedule {
+        public final int workers;
+        public final int[] worker;
+        public final long[] start;
+        public final long[] finish;
+        public final long makespan;
+        public final long busyTime;
+        public final long criticalPathBound;
+        private final int[] timelineStart;
+        private final int[] timelineTasks;
+
+        Schedule(int workers, int[] worker, long[] start, long[] finish, long[] duration, long[] bottomLevel, int[] sequence) {
+            this.workers = workers;
+            this.worker = worker;
+            this.start = start;
+            this.finish = finish;
+            long span = 0, busy = 0, bound = 0;
+            for (int c = 0; c < worker.length; c++) {
+                span = Math.max(span, finish[c]);
+                busy += duration[c];
+                bound = Math.max(bound, bottomLevel[c]);
+            }
+            this.makespan = span;
+            this.busyTime = busy;
+            this.criticalPathBound = bound;
+
+            timelineStart = new int[workers + 1];
+            for (int w : worker) timelineStart[w + 1]++;
+            for (int w = 0; w < workers; w++) timelineStart[w + 1] += timelineStart[w];
+            int[] cursor = Arrays.copyOf(timelineStart, workers);
+            timelineTasks = new int[worker.length];
+            for (int c : sequence) timelineTasks[cursor[worker[c]]++] = c;
+        }
+
+        public long idleTime() {
+            return workers * makespan - busyTime;
+        }
+
+        public double utilization() {
+            return makespan == 0 ? 0 : (double) busyTime / ((double) workers * makespan);
+        }
+
+        public int[] timeline(int w) {
+            return Arrays.copyOfRange(timelineTasks, timelineStart[w], timelineStart[w + 1]);
+        }
+
+        public long idleTime(int w) {
+            long busy = 0;
+            for (int i = timelineStart[w]; i < timelineStart[w + 1]; i++) {
+                int c = timelineTasks[i];
+                busy += finish[c] - start[c];
+            }
+            return makespan - busy;
+        }
+    }
+
+    private static class Heap {
+        private final int[] items;
+        private final long[] key;
+        private final boolean max;
+        private int size = 0;
+
+        Heap(int capacity, long[] key, boolean max) {
+            this.items = new int[capacity];
+            this.key = key;
+            this.max = max;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peek() {
+            return items[0];
+        }
+
+        void push(int x) {
+            int i = size++;
+            while (i > 0 && before(x, items[(i - 1) >> 1])) {
+                items[i] = items[(i - 1) >> 1];
+                i = (i - 1) >> 1;
+            }
+            items[i] = x;
+        }
+
+        int poll() {
+            int top = items[0], last = items[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && before(items[child + 1], items[child])) child++;
+                if (!before(items[child], last)) break;
+                items[i] = items[child];
+                i = child;
+            }
+            items[i] = last;
+            return top;
+        }
+
+        private boolean before(int a, int b) {
+            if (key[a] != key[b]) return max ? key[a] > key[b] : key[a] < key[b];
+            return a < b;
+        }
+    }
+}
@@ -1,24 +1,31 @@
 package graph.topo;
 
-import metrics.AlgorithmMetrics;
+import graph.CSRGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.nio.IntBuffer;
 import java.util.*;
+import java.util.function.IntConsumer;
 
 public class KahnTopo {
-    public static List<Integer> topologicalSort(List<List<Integer>> adj) {
-        return topologicalSort(adj, null);
+    public static List<Integer> topologicalSort(CSRGraph graph) {
+        return topologicalSort(graph, null);
     }
 
-    public static List<Integer> topologicalSort(List<List<Integer>> adj, AlgorithmMetrics metrics) {
-        int n = adj.size();
+    public static List<Integer> topologicalSort(CSRGraph graph, Metrics metrics) {
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        Counter queuePushes = m.counter("queue_pushes");
+        Counter queuePops = m.counter("queue_pops");
+        int n = graph.n;
         int[] indeg = new int[n];
-        for (int u = 0; u < n; u++)
-            for (int v : adj.get(u)) indeg[v]++;
+        for (int e = 0; e < graph.edgeCount(); e++) indeg[graph.targets[e]]++;
 
         Queue<Integer> q = new ArrayDeque<>();
         for (int i = 0; i < n; i++) {
             if (indeg[i] == 0) {
                 q.add(i);
-                if (metrics != null) metrics.count("queue_pushes");
+                queuePushes.increment();
             }
         }
 
@@ -26,15 +33,43 @@ public class KahnTopo {
         while (!q.isEmpty()) {
             int u = q.poll();
             order.add(u);
-            if (metrics != null) metrics.count("queue_pops");
-            for (int v : adj.get(u)) {
+            queuePops.increment();
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
                 indeg[v]--;
                 if (indeg[v] == 0) {
                     q.add(v);
-                    if (metrics != null) metrics.count("queue_pushes");
+                    queuePushes.increment();
                 }
             }
         }
         return order;
     }
+
+    public static int topologicalSort(int n, IntBuffer offsets, IntBuffer targets, IntConsumer out, Metrics metrics) {
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        Counter queuePushes = m.counter("queue_pushes");
+        Counter queuePops = m.counter("queue_pops");
+        int[] indeg = new int[n];
+        int edgeCount = offsets.get(n);
+        for (int e = 0; e < edgeCount; e++) indeg[targets.get(e)]++;
+
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (indeg[i] == 0) queue[tail++] = i;
+        }
+
+        while (head < tail) {
+            int u = queue[head++];
+            out.accept(u);
+            for (int e = offsets.get(u); e < offsets.get(u + 1); e++) {
+                int v = targets.get(e);
+                if (--indeg[v] == 0) queue[tail++] = v;
+            }
+        }
+        queuePushes.add(tail);
+        queuePops.add(head);
+        return head;
+    }
 }
@@ -0,0 +1,153 @@
+package graph.topo;
+
+import graph.CSRGraph;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class ParallelKahnTopo {
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private final CSRGraph graph;
+    private final AtomicIntegerArray indeg;
+    private final int[] order;
+    private final int[] level;
+    private final AtomicInteger tail = new AtomicInteger();
+    private final LongAdder edgesProcessed = new LongAdder();
+
+    private ParallelKahnTopo(CSRGraph graph) {
+        this.graph = graph;
+        this.indeg = new AtomicIntegerArray(graph.n);
+        this.order = new int[graph.n];
+        this.level = new int[graph.n];
+    }
+
+    public static LevelOrder topologicalSort(CSRGraph graph) {
+        return topologicalSort(graph, null);
+    }
+
+    public static LevelOrder topologicalSort(CSRGraph graph, Metrics metrics) {
+        return topologicalSort(graph, ForkJoinPool.commonPool(), metrics);
+    }
+
+    public static LevelOrder topologicalSort(CSRGraph graph, ForkJoinPool pool, Metrics metrics) {
+        ParallelKahnTopo topo = new ParallelKahnTopo(graph);
+        int n = graph.n;
+        Arrays.fill(topo.level, -1);
+        run(pool, new RangeTask(0, n, (lo, hi) -> topo.countInDegrees(lo, hi)), n);
+        run(pool, new RangeTask(0, n, (lo, hi) -> topo.collectSources(lo, hi)), n);
+
+        int[] levelStart = new int[16];
+        int levels = 0, head = 0;
+        while (head < topo.tail.get()) {
+            int end = topo.tail.get();
+            if (end - head < SEQUENTIAL_THRESHOLD) Arrays.sort(topo.order, head, end);
+            else Arrays.parallelSort(topo.order, head, end);
+            levelStart = push(levelStart, levels++, head);
+            int next = levels;
+            run(pool, new RangeTask(head, end, (lo, hi) -> topo.releaseSuccessors(lo, hi, next)), end - head);
+            head = end;
+        }
+        levelStart = push(levelStart, levels, head);
+
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        m.counter("levels").add(levels);
+        m.counter("edges_processed").add(topo.edgesProcessed.sum());
+        return new LevelOrder(Arrays.copyOf(topo.order, head), topo.level, Arrays.copyOf(levelStart, levels + 1));
+    }
+
+    private void countInDegrees(int lo, int hi) {
+        for (int u = lo; u < hi; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) indeg.getAndIncrement(graph.targets[e]);
+        }
+    }
+
+    private void collectSources(int lo, int hi) {
+        for (int v = lo; v < hi; v++) {
+            if (indeg.get(v) == 0) append(v, 0);
+        }
+    }
+
+    private void releaseSuccessors(int lo, int hi, int nextLevel) {
+        long edges = 0;
+        for (int i = lo; i < hi; i++) {
+            int u = order[i];
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                edges++;
+                if (indeg.decrementAndGet(v) == 0) append(v, nextLevel);
+            }
+        }
+        edgesProcessed.add(edges);
+    }
+
+    private void append(int v, int vertexLevel) {
+        level[v] = vertexLevel;
+        order[tail.getAndIncrement()] = v;
+    }
+
+    private static void run(ForkJoinPool pool, RangeTask task, int size) {
+        if (size < SEQUENTIAL_THRESHOLD) task.compute();
+        else pool.invoke(task);
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        if (index == array.length) array = Arrays.copyOf(array, index * 2);
+        array[index] = value;
+        return array;
+    }
+
+    private interface RangeBody {
+        void apply(int lo, int hi);
+    }
+
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+        private final int lo, hi;
+        private final RangeBody body;
+
+        RangeTask(int lo, int hi, RangeBody body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+                body.apply(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RangeTask(lo, mid, body), new RangeTask(mid, hi, body));
+        }
+    }
+
+    public static class LevelOrder {
+        public final int[] order;
+        public final int[] level;
+        public final int[] levelStart;
+
+        LevelOrder(int[] order, int[] level, int[] levelStart) {
+            this.order = order;
+            this.level = level;
+            this.levelStart = levelStart;
+        }
+
+        public int levelCount() {
+            return levelStart.length - 1;
+        }
+
+        public boolean isComplete() {
+            return order.length == level.length;
+        }
+
+        public List<Integer> toList() {
+            List<Integer> list = new ArrayList<>(order.length);
+            for (int v : order) list.add(v);
+            return list;
+        }
+    }
+}
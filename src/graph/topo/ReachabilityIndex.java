@@ -0,0 +1,183 @@
+package graph.topo;
+
+import graph.CSRGraph;
+import graph.scc.CondensationGraph;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.NoOpMetrics;
+import java.util.*;
+
+public class ReachabilityIndex {
+    public static final int CLOSURE_LIMIT = 8192;
+    private static final int LABELINGS = 2;
+
+    private final CSRGraph dag;
+    private final int[] componentOf;
+    private final int[] rank;
+    private final int[][] low, post;
+    private final int[] treeLow;
+    private final long[] closure;
+    private final int words;
+    private final int[] visited;
+    private int stamp = 0;
+    private int[] stack = new int[16];
+    private final Counter queries, searches, verticesVisited;
+
+    public ReachabilityIndex(CondensationGraph condensation, List<Integer> topo) {
+        this(condensation.getCondensation(), condensation.getComponentOf(), topo, null);
+    }
+
+    public ReachabilityIndex(CSRGraph dag, List<Integer> topo) {
+        this(dag, null, topo, null);
+    }
+
+    public ReachabilityIndex(CSRGraph dag, int[] componentOf, List<Integer> topo, Metrics metrics) {
+        Metrics m = NoOpMetrics.orNoOp(metrics);
+        queries = m.counter("queries");
+        searches = m.counter("fallback_searches");
+        verticesVisited = m.counter("vertices_visited");
+        this.dag = dag;
+        this.componentOf = componentOf;
+        int n = dag.n;
+        if (topo.size() != n) throw new IllegalArgumentException("Topological order covers " + topo.size() + " of " + n + " vertices; graph is not a DAG");
+
+        int[] order = new int[n];
+        rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = topo.get(i);
+            rank[order[i]] = i;
+        }
+
+        if (n <= CLOSURE_LIMIT) {
+            words = (n + 63) >>> 6;
+            closure = new long[n * words];
+            for (int i = n - 1; i >= 0; i--) {
+                int u = order[i], row = u * words;
+                closure[row + (u >>> 6)] |= 1L << u;
+                for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                    int child = dag.targets[e] * words;
+                    for (int w = 0; w < words; w++) closure[row + w] |= closure[child + w];
+                }
+            }
+            low = post = null;
+            treeLow = null;
+            visited = null;
+            return;
+        }
+
+        words = 0;
+        closure = null;
+        low = new int[LABELINGS][];
+        post = new int[LABELINGS][];
+        treeLow = new int[n];
+        visited = new int[n];
+        for (int k = 0; k < LABELINGS; k++) {
+            low[k] = new int[n];
+            post[k] = new int[n];
+            label(order, k, k == 0 ? treeLow : null);
+        }
+    }
+
+    private void label(int[] order, int k, int[] subtreeLow) {
+        int n = dag.n;
+        boolean reversed = (k & 1) == 1;
+        int[] lowK = low[k], postK = post[k];
+        int[] cursor = new int[n];
+        Arrays.fill(postK, -1);
+        int[] callStack = new int[n];
+        int counter = 0;
+
+        for (int i = 0; i < n; i++) {
+            int root = order[reversed ? n - 1 - i : i];
+            if (postK[root] != -1 || cursor[root] != 0) continue;
+            int depth = 0;
+            callStack[depth++] = root;
+            cursor[root] = 1;
+            lowK[root] = Integer.MAX_VALUE;
+            if (subtreeLow != null) subtreeLow[root] = Integer.MAX_VALUE;
+
+            while (depth > 0) {
+                int u = callStack[depth - 1];
+                int degree = dag.offsets[u + 1] - dag.offsets[u];
+                if (cursor[u] <= degree) {
+                    int j = cursor[u]++ - 1;
+                    int v = dag.targets[reversed ? dag.offsets[u + 1] - 1 - j : dag.offsets[u] + j];
+                    if (cursor[v] == 0) {
+                        cursor[v] = 1;
+                        lowK[v] = Integer.MAX_VALUE;
+                        if (subtreeLow != null) subtreeLow[v] = Integer.MAX_VALUE;
+                        callStack[depth++] = v;
+                    } else {
+                        lowK[u] = Math.min(lowK[u], lowK[v]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                postK[u] = counter++;
+                lowK[u] = Math.min(lowK[u], postK[u]);
+                if (subtreeLow != null) subtreeLow[u] = Math.min(subtreeLow[u], postK[u]);
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowK[parent] = Math.min(lowK[parent], lowK[u]);
+                    if (subtreeLow != null) subtreeLow[parent] = Math.min(subtreeLow[parent], subtreeLow[u]);
+                }
+            }
+        }
+    }
+
+    public boolean tasksReach(int from, int to) {
+        if (componentOf == null) throw new IllegalStateException("Index was built without a component mapping");
+        return reaches(componentOf[from], componentOf[to]);
+    }
+
+    public boolean reaches(int from, int to) {
+        queries.increment();
+        if (from == to) return true;
+        if (rank[from] >= rank[to]) return false;
+        if (closure != null) return (closure[from * words + (to >>> 6)] & (1L << to)) != 0;
+        if (!contains(from, to)) return false;
+        if (inTree(from, to)) return true;
+        return search(from, to);
+    }
+
+    private boolean contains(int u, int v) {
+        for (int k = 0; k < LABELINGS; k++) {
+            if (low[k][u] > low[k][v] || post[k][v] > post[k][u]) return false;
+        }
+        return true;
+    }
+
+    private boolean inTree(int u, int v) {
+        return treeLow[u] <= post[0][v] && post[0][v] <= post[0][u];
+    }
+
+    private synchronized boolean search(int from, int to) {
+        searches.increment();
+        if (++stamp == 0) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        int depth = 0;
+        stack[depth++] = from;
+        visited[from] = stamp;
+        while (depth > 0) {
+            int u = stack[--depth];
+            verticesVisited.increment();
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) {
+                int v = dag.targets[e];
+                if (v == to || inTree(v, to)) return true;
+                if (visited[v] == stamp || rank[v] >= rank[to] || !contains(v, to)) continue;
+                visited[v] = stamp;
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = v;
+            }
+        }
+        return false;
+    }
+
+    public long memoryBytes() {
+        if (closure != null) return 8L * closure.length + 4L * rank.length;
+        return 4L * dag.n * (3 + 2 * LABELINGS);
+    }
+}
@@ -1,14 +1,25 @@
 package metrics;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 public class AlgorithmMetrics implements Metrics {
     private long startTime;
     private long endTime;
-    private Map<String, Integer> counters;
+    private final boolean concurrent;
+    private final Map<String, Counter> counters;
 
     public AlgorithmMetrics() {
-        this.counters = new HashMap<>();
+        this(false);
+    }
+
+    public AlgorithmMetrics(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.counters = concurrent ? Collections.synchronizedMap(new LinkedHashMap<>()) : new LinkedHashMap<>();
+    }
+
+    public static AlgorithmMetrics concurrent() {
+        return new AlgorithmMetrics(true);
     }
 
     @Override
@@ -22,15 +33,15 @@ public class AlgorithmMetrics implements Metrics {
     }
 
     @Override
-    public void count(String key) {
-        counters.put(key, counters.getOrDefault(key, 0) + 1);
+    public Counter counter(String key) {
+        return counters.computeIfAbsent(key, k -> concurrent ? new AdderCounter() : new LongCounter());
     }
 
     @Override
     public void print() {
         System.out.println("Metrics:");
         System.out.println("  Time: " + (endTime - startTime) / 1_000_000.0 + " ms");
-        for (Map.Entry<String, Integer> entry : counters.entrySet()) {
+        for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
             System.out.println("  " + entry.getKey() + ": " + entry.getValue());
         }
     }
@@ -43,12 +54,57 @@ public class AlgorithmMetrics implements Metrics {
         return (endTime - startTime) / 1_000_000.0;
     }
 
-    public int getCount(String key) {
-        return counters.getOrDefault(key, 0);
+    public long getCount(String key) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter.get() : 0;
     }
 
-    public Map<String, Integer> getCounters() {
-        return new HashMap<>(counters);
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        synchronized (counters) {
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                long value = entry.getValue().get();
+                if (value != 0) snapshot.put(entry.getKey(), value);
+            }
+        }
+        return new HashMap<>(snapshot);
     }
-}
 
+    private static final class LongCounter implements Counter {
+        private long value;
+
+        @Override
+        public void increment() {
+            value++;
+        }
+
+        @Override
+        public void add(long delta) {
+            value += delta;
+        }
+
+        @Override
+        public long get() {
+            return value;
+        }
+    }
+
+    private static final class AdderCounter implements Counter {
+        private final LongAdder value = new LongAdder();
+
+        @Override
+        public void increment() {
+            value.increment();
+        }
+
+        @Override
+        public void add(long delta) {
+            value.add(delta);
+        }
+
+        @Override
+        public long get() {
+            return value.sum();
+        }
+    }
+}
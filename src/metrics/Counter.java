@@ -0,0 +1,7 @@
+package metrics;
+
+public interface Counter {
+    void increment();
+    void add(long delta);
+    long get();
+}
@@ -3,6 +3,14 @@ package metrics;
 public interface Metrics {
     void start();
     void stop();
-    void count(String key);
+    Counter counter(String key);
     void print();
+
+    default void count(String key) {
+        counter(key).increment();
+    }
+
+    default void add(String key, long delta) {
+        counter(key).add(delta);
+    }
 }
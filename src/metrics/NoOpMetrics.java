@@ -0,0 +1,44 @@
+package metrics;
+
+public final class NoOpMetrics implements Metrics {
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private static final Counter NO_OP_COUNTER = new Counter() {
+        @Override
+        public void increment() {
+        }
+
+        @Override
+        public void add(long delta) {
+        }
+
+        @Override
+        public long get() {
+            return 0;
+        }
+    };
+
+    private NoOpMetrics() {
+    }
+
+    public static Metrics orNoOp(Metrics metrics) {
+        return metrics != null ? metrics : INSTANCE;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public Counter counter(String key) {
+        return NO_OP_COUNTER;
+    }
+
+    @Override
+    public void print() {
+    }
+}
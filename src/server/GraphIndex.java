@@ -0,0 +1,130 @@
+package server;
+
+import data.BinaryGraphFile;
+import data.GraphLoader;
+import data.MappedCSRGraph;
+import graph.CSRGraph;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.LongDistances;
+import graph.scc.CondensationGraph;
+import graph.scc.SCCAlgorithm;
+import graph.topo.KahnTopo;
+import graph.topo.ReachabilityIndex;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class GraphIndex {
+    public final CSRGraph graph;
+    public final int defaultSource;
+    private final SCCAlgorithm scc;
+    private final CondensationGraph condensation;
+    private final CSRGraph dag;
+    private final List<Integer> topo;
+    private final int[] rank;
+    private final boolean intPathSumsFit;
+    private final Map<Long, LongDistances> cache;
+    private ReachabilityIndex reachability;
+    private long hits = 0, misses = 0;
+
+    public GraphIndex(CSRGraph graph, int defaultSource, int cacheCapacity) {
+        this.graph = graph;
+        this.defaultSource = defaultSource;
+        this.scc = SCCAlgorithm.forGraph(graph, null);
+        this.condensation = new CondensationGraph(graph, scc);
+        this.dag = condensation.getCondensation();
+        this.topo = KahnTopo.topologicalSort(dag);
+        this.rank = new int[dag.n];
+        for (int i = 0; i < topo.size(); i++) rank[topo.get(i)] = i;
+        this.intPathSumsFit = graph.intPathSumsFit();
+        this.cache = new LinkedHashMap<Long, LongDistances>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, LongDistances> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    public static GraphIndex load(Path path, int cacheCapacity) throws IOException {
+        if (path.toString().endsWith(BinaryGraphFile.EXTENSION)) {
+            MappedCSRGraph mapped = BinaryGraphFile.open(path);
+            return new GraphIndex(mapped.toCSRGraph(), mapped.source, cacheCapacity);
+        }
+        GraphLoader.GraphData data = GraphLoader.loadGraph(path.toString());
+        CSRGraph graph = data.hasLongWeights()
+            ? CSRGraph.fromArrays(data.n, data.edgeCount, data.from, data.to, data.longWeights)
+            : CSRGraph.fromArrays(data.n, data.edgeCount, data.from, data.to, data.weights);
+        return new GraphIndex(graph, data.source, cacheCapacity);
+    }
+
+    public int componentCount() {
+        return scc.getComponentCount();
+    }
+
+    public int componentOf(int v) {
+        return condensation.getComponent(v);
+    }
+
+    public int rank(int v) {
+        return rank[componentOf(v)];
+    }
+
+    public int[] members(int component) {
+        int[] start = scc.getComponentStart();
+        return Arrays.copyOfRange(scc.getMembers(), start[component], start[component + 1]);
+    }
+
+    public boolean reaches(int u, int v) {
+        ReachabilityIndex index;
+        synchronized (this) {
+            if (reachability == null) reachability = new ReachabilityIndex(condensation, topo);
+            index = reachability;
+        }
+        return index.tasksReach(u, v);
+    }
+
+    public LongDistances shortest(int src) {
+        return distances(componentOf(src), false);
+    }
+
+    public LongDistances longest(int src) {
+        return distances(componentOf(src), true);
+    }
+
+    private LongDistances distances(int sourceComponent, boolean longest) {
+        long key = (long) sourceComponent << 1 | (longest ? 1 : 0);
+        synchronized (cache) {
+            LongDistances cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        LongDistances result;
+        if (!intPathSumsFit) {
+            result = longest
+                ? DAGLongestPath.longestPathLong(sourceComponent, dag, topo, null)
+                : DAGShortestPath.shortestPathLong(sourceComponent, dag, topo, null);
+        } else {
+            int[] parent = new int[dag.n];
+            int[] dist = longest
+                ? DAGLongestPath.longestPath(sourceComponent, dag, topo, null, parent)
+                : DAGShortestPath.shortestPath(sourceComponent, dag, topo, null, parent);
+            result = LongDistances.fromInt(sourceComponent, dist, parent, longest ? Integer.MIN_VALUE : Integer.MAX_VALUE);
+        }
+        synchronized (cache) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    public String stats() {
+        synchronized (cache) {
+            return "nodes=" + graph.n + " edges=" + graph.edgeCount() + " components=" + componentCount()
+                + " cached=" + cache.size() + " hits=" + hits + " misses=" + misses;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package server;
+
+import graph.dagsp.LongDistances;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+public class QueryServer {
+    private static final int DEFAULT_CACHE = 256;
+
+    private final GraphIndex index;
+
+    public QueryServer(GraphIndex index) {
+        this.index = index;
+    }
+
+    public String handle(String line) {
+        String[] args = line.trim().split("\\s+");
+        try {
+            switch (args[0]) {
+                case "scc":
+                    return "OK " + index.componentOf(vertex(args, 1));
+                case "rank":
+                    return "OK " + index.rank(vertex(args, 1));
+                case "reaches":
+                    return "OK " + index.reaches(vertex(args, 1), vertex(args, 2));
+                case "members": {
+                    int c = Integer.parseInt(arg(args, 1));
+                    if (c < 0 || c >= index.componentCount()) return "ERR unknown component " + c;
+                    return "OK" + join(index.members(c));
+                }
+                case "shortest":
+                case "longest": {
+                    LongDistances d = distances(args[0], vertex(args, 1));
+                    int target = index.componentOf(vertex(args, 2));
+                    return d.isReachable(target) ? "OK " + d.dist[target] : "OK unreachable";
+                }
+                case "path": {
+                    LongDistances d = distances(arg(args, 1), vertex(args, 2));
+                    int target = index.componentOf(vertex(args, 3));
+                    return d.isReachable(target) ? "OK" + join(d.pathTo(target)) : "OK unreachable";
+                }
+                case "critical": {
+                    int src = args.length > 1 ? vertex(args, 1) : index.defaultSource;
+                    LongDistances d = index.longest(src);
+                    int target = d.argMax();
+                    return "OK " + d.dist[target] + join(d.pathTo(target));
+                }
+                case "stats":
+                    return "OK " + index.stats();
+                default:
+                    return "ERR unknown command " + args[0];
+            }
+        } catch (RuntimeException e) {
+            return "ERR " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    public void serve(BufferedReader in, Writer out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) continue;
+            if (line.trim().equals("quit")) break;
+            out.write(handle(line));
+            out.write('\n');
+            if (!in.ready()) out.flush();
+        }
+        out.flush();
+    }
+
+    public void listen(int port) throws IOException {
+        try (ServerSocket socket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + socket.getLocalSocketAddress());
+            while (true) {
+                Socket client = socket.accept();
+                client.setTcpNoDelay(true);
+                Thread.ofVirtual().name("query-", 0).start(() -> {
+                    try (Socket c = client;
+                         BufferedReader in = new BufferedReader(new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8));
+                         Writer out = new BufferedWriter(new OutputStreamWriter(c.getOutputStream(), StandardCharsets.UTF_8))) {
+                        serve(in, out);
+                    } catch (IOException e) {
+                        System.err.println("Connection closed: " + e.getMessage());
+                    }
+                });
+            }
+        }
+    }
+
+    private LongDistances distances(String kind, int src) {
+        switch (kind) {
+            case "shortest": return index.shortest(src);
+            case "longest": return index.longest(src);
+            default: throw new IllegalArgumentException("expected shortest or longest, got " + kind);
+        }
+    }
+
+    private int vertex(String[] args, int i) {
+        int v = Integer.parseInt(arg(args, i));
+        if (v < 0 || v >= index.graph.n) throw new IllegalArgumentException("unknown node " + v);
+        return v;
+    }
+
+    private static String arg(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException("missing argument " + i + " for " + args[0]);
+        return args[i];
+    }
+
+    private static String join(int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int v : values) sb.append(' ').append(v);
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: QueryServer <graph.json|graph.csrg> [--port N] [--cache N]");
+            return;
+        }
+        int port = -1, cache = DEFAULT_CACHE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) port = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--cache") && i + 1 < args.length) cache = Math.max(1, Integer.parseInt(args[++i]));
+        }
+
+        GraphIndex index = GraphIndex.load(Paths.get(args[0]), cache);
+        System.err.println("Loaded " + args[0] + ": " + index.stats());
+        QueryServer server = new QueryServer(index);
+        if (port >= 0) {
+            server.listen(port);
+        } else {
+            server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        }
+    }
+}